@@ -4,12 +4,16 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
+
 /**
  * Box class is a child class of Package
  * @author Jamal Rasool and Zack Sotak
  */
 public class Box extends Package {
 
+    private static final long serialVersionUID = -8567584269754476902L;
+
     private int dimension;
     private int volume;
 
@@ -69,20 +73,32 @@ public class Box extends Package {
     }
 
     /**
-     * Get the attributes of the box, in a formatted text fashion.
-     * @return Formatted text
+     * Write the attributes of the box, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    @Override
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Box");
+        out.append("Dimension: ");
+        TextColumns.pad(out, dimension, 10).append(", Volume: ");
+        TextColumns.pad(out, volume, 10).append("    | ").append(TextColumns.NEWLINE);
+    }
+
+    /**
+     * Get the attributes specific to the box, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
      */
     @Override
-    public String getFormattedText() {
-        return String.format("| %12s | %12s | %13s | %13s | Dimension: %10d, Volume: %10d    | %n",
-                "Box", ptn, specification, mailingClass, dimension, volume);
+    public String getDetails() {
+        return "dimension =" + dimension + ", volume=" + volume;
     }
 
     @Override
     public String toString() {
         return "ptn=" + ptn + ", specification=" + specification +
-                ", Mailing Class=" + mailingClass + ",Info: dimension =" + dimension +
-                ", volume=" + volume;
+                ", Mailing Class=" + getMailingClass() + ",Info: " + getDetails();
     }
 
     public void display() {
@@ -0,0 +1,101 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checkpointer saves a point-in-time image of a ShippingStore from a
+ * background thread, either every few minutes or after a number of changes,
+ * whichever comes first. The store keeps accepting changes while the image is
+ * written, and the journal segments that the image makes obsolete are deleted
+ * afterwards, so a restart only replays a short tail of the journal.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class Checkpointer implements Closeable {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 5 * 60 * 1000;
+    public static final int DEFAULT_MUTATION_THRESHOLD = 1000;
+
+    private final ShippingStore store;
+    private final int mutationThreshold;
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger mutations = new AtomicInteger();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    /**
+     * Constructor. Starts the background thread.
+     *
+     * @param store The store to checkpoint
+     * @param intervalMillis Time between checkpoints, or 0 to only checkpoint
+     *                       after mutationThreshold changes
+     * @param mutationThreshold Number of changes that triggers a checkpoint,
+     *                          or 0 to only checkpoint on the timer
+     */
+    public Checkpointer(ShippingStore store, long intervalMillis, int mutationThreshold) {
+        this.store = store;
+        this.mutationThreshold = mutationThreshold;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+
+        if (intervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::checkpointIfChanged, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Called by the store after each change. Queues a checkpoint once the
+     * mutation threshold is reached.
+     */
+    public void mutated() {
+        if (mutations.incrementAndGet() >= mutationThreshold && mutationThreshold > 0
+                && requested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::checkpointIfChanged);
+            } catch (java.util.concurrent.RejectedExecutionException ex) {
+                // Shutting down; the final save happens in writeDatabase.
+            }
+        }
+    }
+
+    /**
+     * Stop the background thread, letting a checkpoint in progress finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Auxiliary private method run on the background thread.
+     */
+    private void checkpointIfChanged() {
+        requested.set(false);
+        if (mutations.getAndSet(0) == 0) {
+            return;
+        }
+        try {
+            store.checkpoint();
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Checkpoint failed: " + ex);
+        }
+    }
+}
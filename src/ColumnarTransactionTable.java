@@ -0,0 +1,175 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ColumnarTransactionTable keeps the transactions on the heap as columns:
+ * one primitive array per field instead of one object per row. It is used
+ * by stores that are not backed by files. The columns are cut into chunks
+ * of CHUNK_ROWS rows, so the table grows by adding a chunk and never copies
+ * rows. A scan over a column reads consecutive array elements and creates
+ * no objects.
+ *
+ * Tracking numbers are dictionary-encoded: every distinct PTN is stored
+ * once and rows hold its int code. get() and asList() still return
+ * Transaction objects, built from the columns on demand.
+ *
+ * Appends are synchronized. Reads take no lock: a row is written before
+ * the size that makes it visible, and chunks never move once added.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class ColumnarTransactionTable extends TransactionTable {
+
+    public static final int CHUNK_ROWS = 1 << 12;
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int NO_PTN = -1;
+
+    // Readers load size before the chunk directories; append publishes them
+    // the other way round, so every row below size lies in a chunk.
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile String[][] ptnChunks = new String[0][];
+    private volatile int size;
+
+    // Written by append only.
+    private final Map<String, Integer> ptnCodes = new HashMap<String, Integer>();
+    private long lastLsn;
+
+    /**
+     * Default constructor. Creates an empty table.
+     */
+    public ColumnarTransactionTable() {
+    }
+
+    /**
+     * Constructor. Creates a table holding the given transactions.
+     * @param rows List of Transactions
+     */
+    public ColumnarTransactionTable(List<Transaction> rows) {
+        for (Transaction t : rows) {
+            append(t, 0);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCustomerId(int row) {
+        return chunk(row).customerIds[row & CHUNK_MASK];
+    }
+
+    @Override
+    public int getEmployeeId(int row) {
+        return chunk(row).employeeIds[row & CHUNK_MASK];
+    }
+
+    @Override
+    public String getPtn(int row) {
+        int code = chunk(row).ptnCodes[row & CHUNK_MASK];
+        return code == NO_PTN ? null : ptnChunks[code >>> CHUNK_SHIFT][code & CHUNK_MASK];
+    }
+
+    @Override
+    public long getShippingTime(int row) {
+        return chunk(row).shippingTimes[row & CHUNK_MASK];
+    }
+
+    @Override
+    public long getDeliveryTime(int row) {
+        return chunk(row).deliveryTimes[row & CHUNK_MASK];
+    }
+
+    @Override
+    public float getPrice(int row) {
+        return chunk(row).prices[row & CHUNK_MASK];
+    }
+
+    @Override
+    public synchronized void append(Transaction t, long lsn) {
+        int row = size;
+        if ((row & CHUNK_MASK) == 0) {
+            Chunk[] grown = Arrays.copyOf(chunks, (row >>> CHUNK_SHIFT) + 1);
+            grown[grown.length - 1] = new Chunk();
+            chunks = grown;
+        }
+        Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+        int i = row & CHUNK_MASK;
+        chunk.customerIds[i] = t.getCustomerId();
+        chunk.employeeIds[i] = t.getEmployeeId();
+        chunk.shippingTimes[i] = t.getShippingDate() == null ? NO_DATE : t.getShippingDate().getTime();
+        chunk.deliveryTimes[i] = t.getDeliveryDate() == null ? NO_DATE : t.getDeliveryDate().getTime();
+        chunk.prices[i] = t.getPrice();
+        chunk.ptnCodes[i] = encodePtn(t.getPtn());
+        lastLsn = Math.max(lastLsn, lsn);
+        size = row + 1;
+    }
+
+    @Override
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Get the number of distinct tracking numbers in the table.
+     * @return Size of the PTN dictionary
+     */
+    public synchronized int getDistinctPtnCount() {
+        return ptnCodes.size();
+    }
+
+    /**
+     * Auxiliary private method that gets the code of a tracking number,
+     * adding it to the dictionary if it is new. Called from append.
+     */
+    private int encodePtn(String ptn) {
+        if (ptn == null) {
+            return NO_PTN;
+        }
+        Integer code = ptnCodes.get(ptn);
+        if (code != null) {
+            return code;
+        }
+        int next = ptnCodes.size();
+        if ((next & CHUNK_MASK) == 0) {
+            String[][] grown = Arrays.copyOf(ptnChunks, (next >>> CHUNK_SHIFT) + 1);
+            grown[grown.length - 1] = new String[CHUNK_ROWS];
+            ptnChunks = grown;
+        }
+        ptnChunks[next >>> CHUNK_SHIFT][next & CHUNK_MASK] = ptn;
+        ptnCodes.put(ptn, next);
+        return next;
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * CHUNK_ROWS rows of every column.
+     */
+    private static final class Chunk {
+        final int[] customerIds = new int[CHUNK_ROWS];
+        final int[] employeeIds = new int[CHUNK_ROWS];
+        final long[] shippingTimes = new long[CHUNK_ROWS];
+        final long[] deliveryTimes = new long[CHUNK_ROWS];
+        final float[] prices = new float[CHUNK_ROWS];
+        final int[] ptnCodes = new int[CHUNK_ROWS];
+    }
+}
@@ -4,12 +4,16 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
+
 /**
  * Crate is a subclass of Package
  * @author Jamal Rasool and Zach Sotak
  */
 public class Crate extends Package {
 
+    private static final long serialVersionUID = 7058393568289783298L;
+
     private float loadWeight;
     private String content;
 
@@ -70,20 +74,41 @@ public class Crate extends Package {
     }
 
     /**
-     * Get the attributes of the crate, in a formatted text fashion.
-     * @return Formatted text
+     * Write the attributes of the crate, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    @Override
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Crate");
+        out.append("Load Weight: ");
+        TextColumns.padFixed(out, loadWeight, 10).append(", Content: ");
+        TextColumns.pad(out, content, 10).append(" | ").append(TextColumns.NEWLINE);
+    }
+
+    /**
+     * Get the attributes specific to the crate, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
+     */
+    @Override
+    public String getDetails() {
+        return "loadWeight=" + loadWeight + ", width=" + content;
+    }
+
+    /**
+     * Get the free text of the crate that can be searched for words.
+     * @return the specification and the content
      */
     @Override
-    public String getFormattedText() {
-        return String.format("| %12s | %12s | %13s | %13s | Load Weight: %10f, Content: %10s | %n",
-                "Crate", ptn, specification, mailingClass, loadWeight, content);
+    public String getSearchableText() {
+        return specification + " " + content;
     }
 
     @Override
     public String toString() {
         return "ptn=" + ptn + ", specification=" + specification +
-                ", Mailing Class=" + mailingClass + ", Info: loadWeight=" + loadWeight +
-                ", width=" + content;
+                ", Mailing Class=" + getMailingClass() + ", Info: " + getDetails();
     }
 
     public void display() {
@@ -4,12 +4,16 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
 
 /**
  * Designed to hold the customer class of information
  * @author Jamal Rasool
  */
 public class Customer extends User {
+
+    private static final long serialVersionUID = -2902401710040054980L;
+
     private String phoneNumber;
     private String address;
 
@@ -68,18 +72,50 @@ public class Customer extends User {
     }
     
     /**
-     * Returns the attributes of the customer, in a formatted text fashion.
-     * @return Formated Text.
+     * Write the attributes of the customer, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    @Override
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Customer");
+        out.append("Ph#: ");
+        TextColumns.pad(out, phoneNumber, 12).append(", Add: ");
+        TextColumns.pad(out, address, 30).append(" | ").append(TextColumns.NEWLINE);
+    }
+
+    /**
+     * Get the attributes specific to the customer, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
      */
-    public String getFormattedText() {
-        return String.format("| %10s | %9d | %12s | %12s | Ph#: %12s, Add: %30s | %n",
-                "Customer", id, firstName, lastName, phoneNumber, address);
+    @Override
+    public String getDetails() {
+        return "phoneNumber=" + phoneNumber + ", address=" + address;
+    }
+
+    /**
+     * Get the text the customer can be looked up by. The phone number is
+     * given twice, as entered and as plain digits, so a fragment matches
+     * whichever way it is typed.
+     * @return the name, phone number and address
+     */
+    @Override
+    public String getSearchableText() {
+        StringBuilder digits = new StringBuilder();
+        if (phoneNumber != null) {
+            for (int i = 0; i < phoneNumber.length(); i++) {
+                if (Character.isDigit(phoneNumber.charAt(i))) {
+                    digits.append(phoneNumber.charAt(i));
+                }
+            }
+        }
+        return firstName + " " + lastName + " " + phoneNumber + " " + digits + " " + address;
     }
 
     @Override
     public String toString() {
         return "id=" + id + ", firstName=" + firstName
-                + ", lastName=" + lastName + ",Info: phoneNumber=" + phoneNumber
-                + ", address=" + address;
+                + ", lastName=" + lastName + ",Info: " + getDetails();
     }
 }
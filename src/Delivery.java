@@ -0,0 +1,107 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Date;
+
+/**
+ * A Delivery is one line of a delivery manifest: a package from the
+ * inventory that was handed to a customer by an employee. Delivering it
+ * records a shipping transaction and removes the package from the
+ * inventory; see ShippingStore.deliverPackages().
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public final class Delivery {
+
+    private final int customerId;
+    private final int employeeId;
+    private final String ptn;
+    private final Date shippingDate;
+    private final Date deliveryDate;
+    private final float price;
+
+    /**
+     * Constructor initializes a delivery with the provided values.
+     * @param customerId ID of the receiving customer
+     * @param employeeId ID of the delivering employee
+     * @param ptn Tracking number of the delivered package
+     * @param shippingDate When the package was shipped
+     * @param deliveryDate When the package was delivered
+     * @param price Price paid
+     */
+    public Delivery(int customerId, int employeeId, String ptn,
+                    Date shippingDate, Date deliveryDate, float price) {
+        this.customerId = customerId;
+        this.employeeId = employeeId;
+        this.ptn = ptn;
+        this.shippingDate = shippingDate == null ? null : new Date(shippingDate.getTime());
+        this.deliveryDate = deliveryDate == null ? null : new Date(deliveryDate.getTime());
+        this.price = price;
+    }
+
+    /**
+     * Get the customer ID.
+     * @return customerId
+     */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Get the employee ID.
+     * @return employeeId
+     */
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * Get the package tracking number.
+     * @return ptn
+     */
+    public String getPtn() {
+        return ptn;
+    }
+
+    /**
+     * Get the shipping date.
+     * @return A copy of the shipping date, or null
+     */
+    public Date getShippingDate() {
+        return shippingDate == null ? null : new Date(shippingDate.getTime());
+    }
+
+    /**
+     * Get the delivery date.
+     * @return A copy of the delivery date, or null
+     */
+    public Date getDeliveryDate() {
+        return deliveryDate == null ? null : new Date(deliveryDate.getTime());
+    }
+
+    /**
+     * Get the price.
+     * @return price
+     */
+    public float getPrice() {
+        return price;
+    }
+
+    /**
+     * Get the shipping transaction that records this delivery.
+     * @return A new transaction
+     */
+    public Transaction toTransaction() {
+        return new Transaction(customerId, employeeId, ptn, getShippingDate(), getDeliveryDate(), price);
+    }
+
+    @Override
+    public String toString() {
+        return "Delivery{" + "customerId=" + customerId + ", employeeId=" + employeeId
+                + ", ptn=" + ptn + ", shippingDate=" + shippingDate
+                + ", deliveryDate=" + deliveryDate + ", price=" + price + '}';
+    }
+}
@@ -4,12 +4,16 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
+
 /**
  * Drum is a subclass of Package
  * @author Jamal Rasool and Zach Sotak
  */
 public class Drum extends Package {
 
+    private static final long serialVersionUID = 7130399009509995656L;
+
     private String material;
     private float diameter;
 
@@ -69,24 +73,44 @@ public class Drum extends Package {
     }
 
     /**
-     * Get the attributes of the drum, in a formatted text fashion.
-     * @return Formatted text
+     * Write the attributes of the drum, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
      */
     @Override
-    public String getFormattedText() {
-        return String.format("| %12s | %12s | %13s | %13s | Material: %10s, Diamether: %10f  | %n",
-                "Drum", ptn, specification, mailingClass, material, diameter);
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Drum");
+        out.append("Material: ");
+        TextColumns.pad(out, getMaterial(), 10).append(", Diamether: ");
+        TextColumns.padFixed(out, diameter, 10).append("  | ").append(TextColumns.NEWLINE);
+    }
+
+    /**
+     * Get the attributes specific to the drum, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
+     */
+    @Override
+    public String getDetails() {
+        return "Material=" + getMaterial() + ", volume=" + diameter;
+    }
+
+    /**
+     * Get the free text of the drum that can be searched for words.
+     * @return the specification and the material
+     */
+    @Override
+    public String getSearchableText() {
+        return specification + " " + getMaterial();
     }
 
     @Override
     public String toString() {
         return "ptn=" + ptn + ", specification=" + specification +
-                ", Mailing Class=" + mailingClass + ",Info: Material=" + material +
-                ", volume=" + diameter;
+                ", Mailing Class=" + getMailingClass() + ",Info: " + getDetails();
     }
 
     public void display() {
         System.out.printf("Drum", getPtn(), getSpecification(), getMailingClass(), getMaterial(), getDiameter());
     }
-
 }
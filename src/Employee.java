@@ -4,6 +4,7 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -11,6 +12,9 @@ import java.util.List;
  * @author Jamal Rasool and Zach Sotak
  */
 public class Employee extends User {
+
+    private static final long serialVersionUID = 1427895846405220141L;
+
     private int socialSecurityNumber;
     private float monthlySalary;
     private int bankAccountNumber;
@@ -90,20 +94,34 @@ public class Employee extends User {
     }
 
     /**
-     * Returns the attributes of the employee, in a formatted text fashion.
-     * @return Formated Text.
+     * Write the attributes of the employee, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
      */
     @Override
-    public String getFormattedText() {
-        return String.format("| %10s | %9d | %12s | %12s | SSN: %9d, Salary: %10s, Bank#: %11d | %n",
-                "Employee", id, firstName, lastName, socialSecurityNumber, monthlySalary, bankAccountNumber);
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Employee");
+        out.append("SSN: ");
+        TextColumns.pad(out, socialSecurityNumber, 9).append(", Salary: ");
+        TextColumns.pad(out, Float.toString(monthlySalary), 10).append(", Bank#: ");
+        TextColumns.pad(out, bankAccountNumber, 11).append(" | ").append(TextColumns.NEWLINE);
     }
 
+    /**
+     * Get the attributes specific to the employee, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
+     */
     @Override
-    public String toString() {
-        return "id=" + id + ", firstName=" + firstName
-                + ", lastName=" + lastName + ",Info: socialSecurityNumber=" + socialSecurityNumber
+    public String getDetails() {
+        return "socialSecurityNumber=" + socialSecurityNumber
                 + ", monthlySalary=" + monthlySalary
                 + ", bankAccountNumber=" + bankAccountNumber;
     }
+
+    @Override
+    public String toString() {
+        return "id=" + id + ", firstName=" + firstName
+                + ", lastName=" + lastName + ",Info: " + getDetails();
+    }
 }
@@ -4,12 +4,16 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
+
 /**
  * Envelope is a subclass of Package
  * @author Jamal Rasool and Zach Sotak
  */
 public class Envelope extends Package {
 
+    private static final long serialVersionUID = 3088893798773587888L;
+
     private int height;
     private int width;
 
@@ -69,20 +73,32 @@ public class Envelope extends Package {
     }
 
     /**
-     * Get the attributes of the envelope, in a formatted text fashion.
-     * @return Formatted text
+     * Write the attributes of the envelope, in a formatted text fashion.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    @Override
+    public void appendFormattedText(Appendable out) throws IOException {
+        appendColumns(out, "Envelope");
+        out.append("Height: ");
+        TextColumns.pad(out, height, 10).append(", Width: ");
+        TextColumns.pad(out, width, 10).append("        | ").append(TextColumns.NEWLINE);
+    }
+
+    /**
+     * Get the attributes specific to the envelope, as shown in the
+     * OTHER DETAILS column.
+     * @return Details text
      */
     @Override
-    public String getFormattedText() {
-        return String.format("| %12s | %12s | %13s | %13s | Height: %10d, Width: %10d        | %n",
-                "Envelope", ptn, specification, mailingClass, height, width);
+    public String getDetails() {
+        return "height=" + height + ", width=" + width;
     }
 
     @Override
     public String toString() {
         return "ptn=" + ptn + ", specification=" + specification +
-                ", Mailing Class=" + mailingClass + ",Info: height=" + height +
-                ", width=" + width;
+                ", Mailing Class=" + getMailingClass() + ",Info: " + getDetails();
     }
 
     public void display() {
@@ -0,0 +1,76 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IdAllocator hands out unique, increasing IDs from an atomic counter, so
+ * concurrent callers never get the same ID and never need a lock. The
+ * counter is the high-water mark of the IDs in use: every ID the store
+ * learns about, whether handed out here, loaded, added directly or replayed
+ * from the journal, is reported through observe(), so a later allocate()
+ * can never return an ID that is already taken and no collision check is
+ * needed.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class IdAllocator {
+
+    private final AtomicInteger next;
+
+    /**
+     * Constructor.
+     * @param first The first ID to hand out
+     */
+    public IdAllocator(int first) {
+        this.next = new AtomicInteger(first);
+    }
+
+    /**
+     * Get a new ID.
+     * @return An ID that was neither handed out nor observed before
+     * @throws IllegalStateException if every positive int has been used
+     */
+    public int allocate() {
+        int id = next.getAndIncrement();
+        if (id < 0) {
+            throw new IllegalStateException("No more IDs available");
+        }
+        return id;
+    }
+
+    /**
+     * Record that an ID is in use, so it is never handed out.
+     * @param id The ID
+     */
+    public void observe(int id) {
+        if (id >= 0) {
+            // Observing Integer.MAX_VALUE leaves no ID to hand out.
+            next.accumulateAndGet(id, (current, seen) -> current < 0 ? current
+                    : seen == Integer.MAX_VALUE ? Integer.MIN_VALUE : Math.max(current, seen + 1));
+        }
+    }
+
+    /**
+     * Make sure the next ID is at least the given one, e.g. the high-water
+     * mark saved with the database.
+     * @param first Lowest ID that may be handed out next
+     */
+    public void advanceTo(int first) {
+        if (first > 0) {
+            observe(first - 1);
+        }
+    }
+
+    /**
+     * Get the ID the next allocate() will return, to be saved with the
+     * database.
+     * @return The high-water mark
+     */
+    public int peek() {
+        return next.get();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+
+/**
+ * IntPostingIndex maps an int key, such as a customer ID, to the list of
+ * table rows that carry it. Keys are kept in an open-addressing hash table
+ * like IntUserMap, and each key's rows in a growable int array, so neither
+ * keys nor rows are boxed. Rows are expected to be added in ascending order,
+ * which keeps every posting list sorted.
+ *
+ * The index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class IntPostingIndex {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int INITIAL_POSTINGS = 4;
+    private static final int[] NO_ROWS = new int[0];
+
+    private int[] keys;
+    private int[][] postings;
+    private int[] counts;
+    private int size;
+
+    /**
+     * Default constructor. Creates an empty index.
+     */
+    public IntPostingIndex() {
+        this.keys = new int[DEFAULT_CAPACITY];
+        this.postings = new int[DEFAULT_CAPACITY][];
+        this.counts = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Record a row under a key.
+     *
+     * @param key The key
+     * @param row The row, greater than every row added before
+     */
+    public void add(int key, int row) {
+        int slot = find(key);
+        if (slot < 0) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length << 1);
+            }
+            slot = insert(key);
+        }
+        int[] rows = postings[slot];
+        if (counts[slot] == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length << 1);
+            postings[slot] = rows;
+        }
+        rows[counts[slot]++] = row;
+    }
+
+    /**
+     * Get the rows recorded under a key.
+     *
+     * @param key The key
+     * @return A new array of the rows, in ascending order
+     */
+    public int[] get(int key) {
+        int slot = find(key);
+        return slot < 0 ? NO_ROWS : Arrays.copyOf(postings[slot], counts[slot]);
+    }
+
+    /**
+     * Count the rows recorded under a key.
+     *
+     * @param key The key
+     * @return Number of rows
+     */
+    public int count(int key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * Get the number of distinct keys in the index.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every key from the index.
+     */
+    public void clear() {
+        Arrays.fill(postings, null);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    /**
+     * Auxiliary private method that adds a key with an empty posting list.
+     *
+     * @return The slot of the key
+     */
+    private int insert(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (postings[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        postings[slot] = new int[INITIAL_POSTINGS];
+        counts[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Auxiliary private method that rehashes every entry into a table of the
+     * given capacity.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[][] oldPostings = postings;
+        int[] oldCounts = counts;
+        keys = new int[capacity];
+        postings = new int[capacity][];
+        counts = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPostings[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (postings[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Auxiliary private method that finds the slot holding a key.
+     *
+     * @return The slot, or -1 if the key is not present.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; postings[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Auxiliary private method that spreads sequential keys across the table.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+
+/**
+ * IntUserMap is an open-addressing hash table from user ID to User and the
+ * user's row in the users table. Keys are kept in a plain int array so
+ * lookups never box an Integer, and collisions are resolved by linear
+ * probing. Users are never removed from the store, so the table only
+ * supports insertion and lookup.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class IntUserMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private User[] values;
+    private int[] rows;
+    private int size;
+
+    /**
+     * Default constructor. Creates an empty map.
+     */
+    public IntUserMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor. Creates an empty map sized to hold the given number of
+     * users without growing.
+     *
+     * @param expectedSize Number of users expected to be stored
+     */
+    public IntUserMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new int[capacity];
+        this.values = new User[capacity];
+        this.rows = new int[capacity];
+    }
+
+    /**
+     * Get the user stored under the given ID.
+     *
+     * @param id User ID
+     * @return The user found, or otherwise null.
+     */
+    public User get(int id) {
+        int slot = find(id);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * Get the row of the user stored under the given ID.
+     *
+     * @param id User ID
+     * @return The row, or -1 if the ID is not present.
+     */
+    public int getRow(int id) {
+        int slot = find(id);
+        return slot < 0 ? -1 : rows[slot];
+    }
+
+    /**
+     * Returns true if a user is stored under the given ID.
+     *
+     * @param id User ID
+     * @return true if the ID is present
+     */
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Store a user and its row under the given ID, replacing any previous
+     * user with the same ID.
+     *
+     * @param id User ID
+     * @param user The user to store, must not be null
+     * @param row The user's row in the users table
+     * @return The user previously stored under the ID, or null.
+     */
+    public User put(int id, User user, int row) {
+        if (user == null) {
+            throw new IllegalArgumentException("IntUserMap does not store null users");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == id) {
+                User previous = values[slot];
+                values[slot] = user;
+                rows[slot] = row;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = user;
+        rows[slot] = row;
+        size++;
+        return null;
+    }
+
+    /**
+     * Get the number of users in the map.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every user from the map.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Auxiliary private method that rehashes every entry into a table of the
+     * given capacity.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        User[] oldValues = values;
+        int[] oldRows = rows;
+        keys = new int[capacity];
+        values = new User[capacity];
+        rows = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+
+    /**
+     * Auxiliary private method that finds the slot holding an ID.
+     *
+     * @return The slot, or -1 if the ID is not present.
+     */
+    private int find(int id) {
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Auxiliary private method that spreads sequential IDs across the table.
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal is an append-only write-ahead log of the mutations applied to a
+ * ShippingStore. Each mutation is written as one compact record before it is
+ * applied, so a crash loses at most the records that were not yet forced to
+ * disk, and the cost of durability follows the rate of change instead of the
+ * size of the database.
+ *
+ * Every record is framed as its payload length, a CRC32 of the payload, and
+ * the payload itself. The payload starts with an operation code and a log
+ * sequence number (LSN), followed by the affected entity in RecordCodec
+ * format. A delivery record holds a whole batch of deliveries and takes one
+ * LSN per delivery, so the batch is applied after a crash either entirely
+ * or not at all. A record that was only partly written when the
+ * program stopped fails the length or checksum test and is cut off when the
+ * journal is opened again.
+ *
+ * The journal is split into numbered segment files next to its base file,
+ * e.g. ShippingStore.journal.1, ShippingStore.journal.2. A checkpoint rolls
+ * the journal over to a fresh segment and, once its image is durable, deletes
+ * the segments before it, so a restart only replays the records written
+ * since the last checkpoint.
+ *
+ * A record whose write or sync fails is cut off the segment again and takes
+ * no LSN, so it is neither replayed later nor followed by records that
+ * replay could not reach. If it cannot be cut off, the journal refuses all
+ * further records until it is opened again.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class Journal implements Closeable {
+
+    /**
+     * When records are forced from the operating system's cache to the disk.
+     */
+    public enum SyncPolicy {
+        /** Force after every record. Nothing acknowledged is ever lost. */
+        EVERY_OPERATION,
+        /** Force after every BATCH_SIZE records and on close. */
+        BATCH,
+        /** Force from a background thread every SYNC_INTERVAL_MILLIS. */
+        TIMED
+    }
+
+    /**
+     * Callback used to hand replayed records back to the store.
+     */
+    public interface Handler {
+        void packageAdded(Package p);
+
+        void packageDeleted(String ptn);
+
+        void userAdded(User u);
+
+        void userUpdated(User u);
+
+        void transactionAdded(Transaction t, long lsn);
+
+        void packagesDelivered(List<Transaction> deliveries, long firstLsn);
+    }
+
+    public static final int BATCH_SIZE = 64;
+    public static final long SYNC_INTERVAL_MILLIS = 1000;
+
+    private static final int MAGIC = 0x53534A4C; // "SSJL"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 6;
+    private static final int FRAME_SIZE = 8;
+
+    private static final byte OP_ADD_PACKAGE = 1;
+    private static final byte OP_DELETE_PACKAGE = 2;
+    private static final byte OP_ADD_USER = 3;
+    private static final byte OP_UPDATE_USER = 4;
+    private static final byte OP_ADD_TRANSACTION = 5;
+    private static final byte OP_DELIVER = 6;
+
+    private final File directory;
+    private final String prefix;
+    private final SyncPolicy policy;
+    private final ScheduledExecutorService syncer;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(128);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private int segment;
+    private long lastLsn;
+    private int unsynced;
+    // Set when a failed record could not be cut off the segment.
+    private IOException failure;
+
+    /**
+     * Private constructor, use open() to obtain a journal.
+     */
+    private Journal(File base, SyncPolicy policy, long lastLsn) {
+        File absolute = base.getAbsoluteFile();
+        this.directory = absolute.getParentFile();
+        this.prefix = absolute.getName() + ".";
+        this.policy = policy;
+        this.lastLsn = lastLsn;
+
+        if (policy == SyncPolicy.TIMED) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, SYNC_INTERVAL_MILLIS,
+                    SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Open the journal, creating its first segment if needed. Every complete
+     * record with an LSN greater than afterLsn is passed to the handler, in
+     * log order. A torn record at the end of the last segment is truncated
+     * away so new records are appended right after the last good one.
+     *
+     * @param base The journal base file; segments are named base.N
+     * @param policy When appended records are forced to disk
+     * @param afterLsn LSN already contained in the loaded snapshot
+     * @param handler Receives the replayed records
+     * @return The opened journal, ready for appending.
+     * @throws IOException if a segment cannot be read or written
+     */
+    public static Journal open(File base, SyncPolicy policy, long afterLsn, Handler handler) throws IOException {
+        Journal journal = new Journal(base, policy, afterLsn);
+        List<Integer> segments = journal.listSegments();
+
+        for (int i = 0; i < segments.size(); i++) {
+            File file = journal.segmentFile(segments.get(i));
+            long end = journal.replaySegment(file, afterLsn, handler);
+            if (end == 0 && i == segments.size() - 1) {
+                // Crashed while the segment header was being written.
+                if (!file.delete()) {
+                    journal.stopSyncer();
+                    throw new IOException("Could not remove empty journal segment " + file);
+                }
+            } else if (end < file.length()) {
+                if (i < segments.size() - 1) {
+                    journal.stopSyncer();
+                    throw new IOException("Journal segment " + file + " is damaged before its end");
+                }
+                System.err.println("Journal: discarding " + (file.length() - end)
+                        + " bytes of incomplete records.");
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(end);
+                }
+            }
+        }
+
+        try {
+            if (segments.isEmpty()) {
+                journal.startSegment(1);
+            } else if (!journal.segmentFile(segments.get(segments.size() - 1)).exists()) {
+                journal.startSegment(segments.get(segments.size() - 1));
+            } else {
+                journal.segment = segments.get(segments.size() - 1);
+                journal.channel = FileChannel.open(journal.segmentFile(journal.segment).toPath(),
+                        StandardOpenOption.WRITE);
+                journal.channel.position(journal.channel.size());
+            }
+        } catch (IOException ex) {
+            journal.stopSyncer();
+            throw ex;
+        }
+        return journal;
+    }
+
+    /**
+     * Auxiliary private method that replays one segment file.
+     *
+     * @return The offset just past the last complete record.
+     */
+    private long replaySegment(File file, long afterLsn, Handler handler) throws IOException {
+        long size = file.length();
+        long end = HEADER_SIZE;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a ShippingStore journal: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                if (size == HEADER_SIZE) {
+                    // An empty segment left by an older version; recreate it.
+                    return 0;
+                }
+                throw new IOException("Unsupported journal version " + version + " in " + file);
+            }
+            CRC32 check = new CRC32();
+            while (end + FRAME_SIZE <= size) {
+                int length = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (length <= 0 || end + FRAME_SIZE + length > size) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                check.reset();
+                check.update(payload, 0, length);
+                if (check.getValue() != checksum) {
+                    break;
+                }
+                lastLsn = Math.max(lastLsn, replayRecord(payload, afterLsn, handler));
+                end += FRAME_SIZE + length;
+            }
+        } finally {
+            in.close();
+        }
+        return end;
+    }
+
+    /**
+     * Get the LSN of the last record written to, or replayed from, the journal.
+     * @return lastLsn
+     */
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Append a record for a package added to the inventory.
+     * @param p The package
+     * @return The LSN of the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logAddPackage(Package p) throws IOException {
+        begin(OP_ADD_PACKAGE);
+        RecordCodec.writePackage(record, p);
+        return commit();
+    }
+
+    /**
+     * Append a record for a package removed from the inventory.
+     * @param ptn The package tracking number
+     * @return The LSN of the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logDeletePackage(String ptn) throws IOException {
+        begin(OP_DELETE_PACKAGE);
+        RecordCodec.writeString(record, ptn);
+        return commit();
+    }
+
+    /**
+     * Append a record for a new user.
+     * @param u The user
+     * @return The LSN of the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logAddUser(User u) throws IOException {
+        begin(OP_ADD_USER);
+        RecordCodec.writeUser(record, u);
+        return commit();
+    }
+
+    /**
+     * Append a record holding the new state of an existing user.
+     * @param u The user, with its updated fields
+     * @return The LSN of the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logUpdateUser(User u) throws IOException {
+        begin(OP_UPDATE_USER);
+        RecordCodec.writeUser(record, u);
+        return commit();
+    }
+
+    /**
+     * Append a record for a completed shipping transaction.
+     * @param t The transaction
+     * @return The LSN of the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logAddTransaction(Transaction t) throws IOException {
+        begin(OP_ADD_TRANSACTION);
+        RecordCodec.writeTransaction(record, t);
+        return commit();
+    }
+
+    /**
+     * Append one record for a batch of delivered packages. Each delivery
+     * records its transaction and removes its package from the inventory.
+     * The batch takes consecutive LSNs, one per delivery, but is written,
+     * checksummed and forced as a single record.
+     *
+     * @param deliveries The transactions of the deliveries, at least one
+     * @return The LSN of the first delivery
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long logDeliveries(List<Transaction> deliveries) throws IOException {
+        if (deliveries.isEmpty()) {
+            throw new IllegalArgumentException("A delivery record needs at least one delivery");
+        }
+        begin(OP_DELIVER);
+        RecordCodec.writeVarInt(record, deliveries.size());
+        for (Transaction t : deliveries) {
+            RecordCodec.writeTransaction(record, t);
+        }
+        return commit(deliveries.size()) - deliveries.size() + 1;
+    }
+
+    /**
+     * Close the current segment and continue in a new one. Every record
+     * written before this call lives in a segment numbered lower than the
+     * returned one.
+     *
+     * @return The number of the new segment.
+     * @throws IOException if the old segment cannot be synced or the new one
+     * cannot be created
+     */
+    public synchronized int roll() throws IOException {
+        sync();
+        channel.close();
+        startSegment(segment + 1);
+        return segment;
+    }
+
+    /**
+     * Delete every segment numbered lower than the given one. Called once a
+     * snapshot holding all of their records has safely reached the disk.
+     *
+     * @param firstKept The lowest segment number to keep
+     */
+    public synchronized void discardSegmentsBefore(int firstKept) {
+        for (int number : listSegments()) {
+            if (number < firstKept && !segmentFile(number).delete()) {
+                System.err.println("Journal: could not delete " + segmentFile(number));
+            }
+        }
+    }
+
+    /**
+     * Force every appended record to disk.
+     * @throws IOException if the file cannot be synced
+     */
+    public synchronized void sync() throws IOException {
+        if (unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * Force outstanding records to disk and close the journal file.
+     * @throws IOException if the file cannot be synced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        stopSyncer();
+        if (channel != null && channel.isOpen()) {
+            sync();
+            channel.close();
+        }
+    }
+
+    /**
+     * Auxiliary private method that creates and opens a new, empty segment.
+     */
+    private void startSegment(int number) throws IOException {
+        FileChannel created = FileChannel.open(segmentFile(number).toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        created.write(header);
+        created.force(true);
+        channel = created;
+        segment = number;
+        unsynced = 0;
+    }
+
+    /**
+     * Auxiliary private method that lists the existing segment numbers in
+     * ascending order.
+     */
+    private List<Integer> listSegments() {
+        List<Integer> numbers = new ArrayList<Integer>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(prefix)) {
+                    try {
+                        numbers.add(Integer.parseInt(name.substring(prefix.length())));
+                    } catch (NumberFormatException ex) {
+                        // Not a segment, e.g. a backup copy.
+                    }
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, prefix + number);
+    }
+
+    private void stopSyncer() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * Auxiliary private method used by the TIMED policy thread.
+     */
+    private void syncQuietly() {
+        try {
+            synchronized (this) {
+                if (channel != null && channel.isOpen()) {
+                    sync();
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println(ex.toString());
+        }
+    }
+
+    /**
+     * Auxiliary private method that starts a new record in the buffer.
+     */
+    private void begin(byte op) throws IOException {
+        recordBytes.reset();
+        record.writeByte(op);
+        record.writeLong(lastLsn + 1);
+    }
+
+    /**
+     * Auxiliary private method that frames the buffered record, appends it to
+     * the file and applies the sync policy.
+     *
+     * @return The LSN of the record.
+     */
+    private long commit() throws IOException {
+        return commit(1);
+    }
+
+    /**
+     * Auxiliary private method that commits a record taking several LSNs.
+     *
+     * @return The last LSN of the record.
+     */
+    private long commit(int lsnCount) throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal is unusable after an earlier write failure", failure);
+        }
+        record.flush();
+        byte[] payload = recordBytes.toByteArray();
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        long start = channel.position();
+        int unsyncedBefore = unsynced;
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            unsynced++;
+            if (policy == SyncPolicy.EVERY_OPERATION
+                    || (policy == SyncPolicy.BATCH && unsynced >= BATCH_SIZE)) {
+                sync();
+            }
+        } catch (IOException ex) {
+            unsynced = unsyncedBefore;
+            discardFrom(start, ex);
+            throw ex;
+        }
+        lastLsn += lsnCount;
+        return lastLsn;
+    }
+
+    /**
+     * Auxiliary private method that cuts a failed record off the segment,
+     * so later records follow the last good one. The cut is forced, so the
+     * record cannot come back after a crash. If that fails too, the journal
+     * refuses further records.
+     */
+    private void discardFrom(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
+            channel.force(true);
+        } catch (IOException ex) {
+            ex.addSuppressed(cause);
+            failure = ex;
+            System.err.println("Journal: could not discard a failed record, refusing further writes. " + ex);
+        }
+    }
+
+    /**
+     * Auxiliary private method that decodes one record and, if it is newer
+     * than afterLsn, passes it to the handler.
+     *
+     * @return The last LSN of the record.
+     */
+    private static long replayRecord(byte[] payload, long afterLsn, Handler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        long lsn = in.readLong();
+        if (op == OP_DELIVER) {
+            // A batch is never split by a checkpoint, so its first LSN decides.
+            int count = RecordCodec.readVarInt(in);
+            if (lsn > afterLsn) {
+                List<Transaction> deliveries = new ArrayList<Transaction>(count);
+                for (int i = 0; i < count; i++) {
+                    deliveries.add(RecordCodec.readTransaction(in));
+                }
+                handler.packagesDelivered(deliveries, lsn);
+            }
+            return lsn + count - 1;
+        }
+        if (lsn <= afterLsn) {
+            return lsn;
+        }
+        switch (op) {
+            case OP_ADD_PACKAGE:
+                handler.packageAdded(RecordCodec.readPackage(in));
+                break;
+            case OP_DELETE_PACKAGE:
+                handler.packageDeleted(RecordCodec.readString(in));
+                break;
+            case OP_ADD_USER:
+                handler.userAdded(RecordCodec.readUser(in));
+                break;
+            case OP_UPDATE_USER:
+                handler.userUpdated(RecordCodec.readUser(in));
+                break;
+            case OP_ADD_TRANSACTION:
+                handler.transactionAdded(RecordCodec.readTransaction(in), lsn);
+                break;
+            default:
+                throw new IOException("Unknown journal operation " + op + " at LSN " + lsn);
+        }
+        return lsn;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+/**
+ * Leaderboard keeps the IDs with the highest scores, e.g. the customers who
+ * spent the most, among a stream of score updates. It holds at most
+ * capacity entries in two small arrays sorted best first, so memory stays
+ * bounded however many IDs there are, an update costs O(capacity) and
+ * reading the leaders needs no sorting.
+ *
+ * Each update gives an ID's new total. As long as totals only grow, the
+ * board is exact: an ID outside it can only enter by beating the last
+ * entry. If a full board sees a total shrink, an ID outside the board may
+ * now rank higher, so the board reports itself stale and the owner has to
+ * rebuild it from all totals with clear() and update().
+ *
+ * The board is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class Leaderboard {
+
+    private final int[] ids;
+    private final double[] scores;
+    private int size;
+    private boolean stale;
+
+    /**
+     * Constructor. Creates an empty board.
+     * @param capacity Number of leaders kept
+     */
+    public Leaderboard(int capacity) {
+        this.ids = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    /**
+     * Record the new total of an ID.
+     * @param id The ID
+     * @param score Its total, including every earlier update
+     */
+    public void update(int id, double score) {
+        int position = indexOf(id);
+        if (position >= 0) {
+            if (score < scores[position] && size == ids.length) {
+                stale = true;
+            }
+        } else if (size < ids.length) {
+            position = size++;
+        } else if (score > scores[size - 1]) {
+            position = size - 1;
+        } else {
+            return;
+        }
+        ids[position] = id;
+        scores[position] = score;
+        // Keep the arrays sorted best first; ties keep their order.
+        while (position > 0 && scores[position - 1] < score) {
+            swap(position - 1, position);
+            position--;
+        }
+        while (position + 1 < size && scores[position + 1] > score) {
+            swap(position, position + 1);
+            position++;
+        }
+    }
+
+    /**
+     * Get the leading IDs.
+     * @param limit Maximum number of IDs to return
+     * @return A new array of at most limit IDs, highest score first
+     */
+    public int[] top(int limit) {
+        int[] top = new int[Math.min(Math.max(limit, 0), size)];
+        System.arraycopy(ids, 0, top, 0, top.length);
+        return top;
+    }
+
+    /**
+     * Get the number of leaders kept.
+     * @return capacity
+     */
+    public int capacity() {
+        return ids.length;
+    }
+
+    /**
+     * Returns true if a total shrank and the board has to be rebuilt.
+     * @return true if the board may be wrong
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Remove every entry, e.g. before a rebuild.
+     */
+    public void clear() {
+        size = 0;
+        stale = false;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
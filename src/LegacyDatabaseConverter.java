@@ -0,0 +1,97 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LegacyDatabaseConverter turns a database saved with Java serialization
+ * (ShippingStore.ser) into the binary format written by RecordCodec. It runs
+ * automatically the first time readDatabase finds only the old file, and can
+ * also be run by hand:
+ *
+ *     java LegacyDatabaseConverter [ShippingStore.ser [ShippingStore.db]]
+ *
+ * The entity classes pin their serialVersionUID to the values of the release
+ * that wrote ShippingStore.ser, so the old file stays readable as they change.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class LegacyDatabaseConverter {
+
+    /**
+     * No instances, all methods are static.
+     */
+    private LegacyDatabaseConverter() {
+    }
+
+    /**
+     * Read a serialized database and write it out in the binary format. The
+     * old file is left untouched.
+     *
+     * @param serFile The serialized database
+     * @param dbFile The binary database to create or replace
+     * @throws IOException if either file cannot be read or written
+     */
+    @SuppressWarnings("unchecked") // This will prevent Java unchecked operation warning when
+    // convering from serialized Object to Arraylist<>
+    public static void convert(File serFile, File dbFile) throws IOException {
+        StoreImage image;
+        ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(serFile)));
+        try {
+            List<Package> packageList = (ArrayList<Package>) input.readObject();
+            List<User> users = (ArrayList<User>) input.readObject();
+            List<Transaction> transactions = (ArrayList<Transaction>) input.readObject();
+            int userIdCounter = input.readInt();
+            long lsn;
+            try {
+                lsn = input.readLong();
+            } catch (EOFException ex) {
+                // Written before the journal existed.
+                lsn = 0;
+            }
+            image = new StoreImage(packageList, users, transactions, userIdCounter, lsn);
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Serialized database refers to an unknown class", ex);
+        } finally {
+            input.close();
+        }
+
+        File tempFile = new File(dbFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(tempFile);
+        try {
+            OutputStream buffer = new BufferedOutputStream(file);
+            RecordCodec.writeDatabase(buffer, image);
+            buffer.flush();
+            file.getFD().sync();
+        } finally {
+            file.close();
+        }
+        Files.move(tempFile.toPath(), dbFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args Optional source and destination file names
+     */
+    public static void main(String[] args) {
+        File serFile = new File(args.length > 0 ? args[0] : ShippingStore.LEGACY_DATABASE_FILE);
+        File dbFile = new File(args.length > 1 ? args[1] : ShippingStore.DATABASE_FILE);
+        try {
+            convert(serFile, dbFile);
+            System.out.println("Converted " + serFile + " (" + serFile.length() + " bytes) to "
+                    + dbFile + " (" + dbFile.length() + " bytes).");
+        } catch (IOException ex) {
+            System.err.println(ex.toString());
+            System.exit(1);
+        }
+    }
+}
@@ -2,13 +2,22 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.*;
 import javax.swing.JOptionPane;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.logging.Formatter;
 
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
@@ -22,12 +31,21 @@ import static javax.swing.JOptionPane.ERROR_MESSAGE;
 
 public class MainAppGUI extends JFrame {
 
-    private static ShippingStore ss = ShippingStore.readDatabase(),
-            db = (ss == null) ? new ShippingStore() : ss;
+    // Loaded in the background so the main menu shows up at once.
+    private static ShippingStore db = ShippingStore.readDatabaseLazily();
 
     private static final Logger logger = Logger.getLogger(MainAppGUI.class.getName());
     private static FileHandler fh;
 
+    // Runs the work started by the buttons; see runInBackground.
+    private static final WorkerPool workers = new WorkerPool("gui-action");
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    // Search-as-you-type waits this long after the last keystroke, and shows at most this many matches.
+    private static final int SEARCH_DELAY_MILLIS = 200;
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    private final AtomicBoolean closing = new AtomicBoolean();
+
 
     private final static String ENVELOPEPANEL = "Envelope",
             BOXPANEL = "Box",
@@ -115,6 +133,7 @@ public class MainAppGUI extends JFrame {
         // Setting title information
         super(title);
         initLogger();
+        db.startCheckpointing(Checkpointer.DEFAULT_INTERVAL_MILLIS, Checkpointer.DEFAULT_MUTATION_THRESHOLD);
 
         // Creating a new panel to house the buttons within
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -168,13 +187,13 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Show all existing packages in database'");
                 field.setText("STATUS: in display inventory ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         displayInventoryUI();
                     }
 
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -182,12 +201,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "Add a new package to the database'");
                 field.setText("STATUS: in adding package ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         addPackageUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -195,12 +214,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Delete a package from the database'");
                 field.setText("STATUS: in deleting package ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         deletePackageUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -208,12 +227,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Search for a package'");
                 field.setText("STATUS: in searching inventory ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         searchPackUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -221,12 +240,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Show list of users'");
                 field.setText("STATUS: in listing users...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         listUsersUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -234,12 +253,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Add a new user to the database'");
                 field.setText("STATUS: adding user to database ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         addUserUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -247,12 +266,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Update user info (given their id)'");
                 field.setText("STATUS: Updating user ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         updateUserInfoUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -260,12 +279,12 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Update deliver package'");
                 field.setText("STATUS: User in Deliver a package ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         deliverPackageUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -273,19 +292,23 @@ public class MainAppGUI extends JFrame {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Show a list of completed shipping transactions'");
                 field.setText("STATUS: Showing completed transactions ...");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         showAllCompletedTransactionsUI();
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
         exit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Exit program'");
-                Thread qThread = new Thread() {
+                if (!closing.compareAndSet(false, true)) {
+                    return;
+                }
+                // Not a pool worker: closeOP waits for the pool to drain.
+                Thread qThread = new Thread("shutdown") {
                     public void run() {
                         try {
                             closeOP();
@@ -329,9 +352,9 @@ public class MainAppGUI extends JFrame {
      */
 
     public void displayInventoryUI() {
+        PackageTableModel model = new PackageTableModel(db);
 
-
-        if (db.getPackageList().size() == 0) {
+        if (model.getRowCount() == 0) {
             JOptionPane.showMessageDialog(null, "There is nothing to view as the database\n" +
                             " is currently empty! Now exiting..", "Failure!",
                     ERROR_MESSAGE);
@@ -339,41 +362,7 @@ public class MainAppGUI extends JFrame {
             return;
         }
 
-        // Implement right header
-        String[] header = {"PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS"};
-        Object[][] data = new Object[db.getPackageList().size()][header.length];
-        try {
-            // Do something
-            for (int i = 0; i < db.getPackageList().size(); ++i) {
-
-                data[i][0] = db.getPackageList().get(i).getClass().getName();
-                data[i][1] = db.getPackageList().get(i).getPtn();
-                data[i][2] = db.getPackageList().get(i).getSpecification();
-                data[i][3] = db.getPackageList().get(i).getMailingClass();
-                String info = db.getPackageList().get(i).toString();
-                data[i][4] = info.substring(info.lastIndexOf("Info:")+6);
-            }
-        } catch (ClassCastException e) {
-            logger.log(Level.SEVERE, "ClassCastException thrown, possible database corruption");
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Unknown exception thrown! See stack trace..", e);
-            e.printStackTrace();
-        }
-
-        JFrame display = new JFrame("Inventory List");
-        final JTable table = new JTable(data, header);
-        table.setPreferredScrollableViewportSize(new Dimension(800, 100));
-        table.setFillsViewportHeight(true);
-        table.setEnabled(false);
-
-        JScrollPane scrollPane = new JScrollPane(table);
-        display.add(scrollPane);
-
-
-        display.pack();
-        this.setLocationRelativeTo(null); // Centers Program
-        display.setVisible(true);
-        display.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        showTable(new JFrame("Inventory List"), model);
         logger.log(Level.INFO, "User in 'Package List' window");
     }
 
@@ -404,7 +393,7 @@ public class MainAppGUI extends JFrame {
     public void deletePackageUI() {
         JFrame frame = new JFrame("Deleting Packages");
 
-        if (db.getPackageList().size() == 0) {
+        if (db.getPackageDatabaseSize() == 0) {
             JOptionPane.showMessageDialog(frame, "There is nothing to delete as the database\n" +
                             " is currently empty! Now exiting removal process..", "Failure!",
                     ERROR_MESSAGE);
@@ -427,7 +416,7 @@ public class MainAppGUI extends JFrame {
         submit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User submitted a Tracking number (string)");
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         if (db.deletePackage(TI.getText())) {
                             JOptionPane.showMessageDialog(frame, "Removal was successful!", "Success!",
@@ -442,7 +431,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -465,12 +454,15 @@ public class MainAppGUI extends JFrame {
 
     /**
      * Search Pack UI, is desinged to go through and search for the package that the user wants to look for and display
-     * the information that goes along with it.
+     * the information that goes along with it. Results are shown while the user types: the text is used as a tracking
+     * number prefix, or as a pattern if it contains '*' or '?'. The search runs on the worker pool, shortly after the
+     * last keystroke, and only the first SEARCH_RESULT_LIMIT matches are shown, so typing stays responsive on a very
+     * large inventory.
      */
     private void searchPackUI() {
         JFrame frame1 = new JFrame("Searching Package");
 
-        if (db.getPackageList().size() == 0) {
+        if (db.getPackageDatabaseSize() == 0) {
             JOptionPane.showMessageDialog(null, "There is nothing to view as the database\n" +
                             " is currently empty! Now exiting..", "Failure!",
                     ERROR_MESSAGE);
@@ -479,82 +471,57 @@ public class MainAppGUI extends JFrame {
         }
 
         JPanel searchpanel = new JPanel();
-        JLabel searchfield = new JLabel("Enter the Package's tracking number:  ");
+        JLabel searchfield = new JLabel("Enter the Package's tracking number (* and ? allowed):  ");
         JTextField trackingno = new JTextField(12);
         JButton submit = new JButton("Submit");
         JButton exit = new JButton("Exit");
 
-        frame1.setContentPane(searchpanel);
         searchpanel.add(searchfield);
         searchpanel.add(trackingno);
         searchpanel.add(submit);
         searchpanel.add(exit);
-        searchpanel.setVisible(true);
-
-
-        submit.addActionListener(new ActionListener() {
-            public void actionPerformed(ActionEvent ev) {
-                logger.log(Level.INFO, "User submitted a tracking number for package");
-                Thread qThread = new Thread() {
-                    public void run() {
-                        if (db.packageExists(trackingno.getText())) {
-                            JFrame display = new JFrame("Inventory List");
-
 
-                            // Implement right header
-                            String[] header = {"PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS"};
-                            Object[][] data = new Object[db.getPackageList().size()][header.length];
-                            try {
-                                // Do something
-                                for (int i = 0; i < db.getPackageList().size(); ++i) {
+        String[] header = {"PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS"};
+        DefaultTableModel results = new DefaultTableModel(header, 0);
+        final JTable table = new JTable(results);
+        table.setPreferredScrollableViewportSize(new Dimension(800, 100));
+        table.setFillsViewportHeight(true);
+        table.setEnabled(false);
 
-                                    System.out.println(trackingno.getText());
-                                    System.out.println(db.getPackageList().get(i).ptn);
-                                    if (db.getPackageList().get(i).ptn.equals(trackingno.getText())) {
-                                        data[i][0] = db.getPackageList().get(i).getClass().getName();
-                                        data[i][1] = db.getPackageList().get(i).ptn;
-                                        data[i][2] = db.getPackageList().get(i).specification;
-                                        data[i][3] = db.getPackageList().get(i).mailingClass.toString();
+        frame1.getContentPane().add(searchpanel, BorderLayout.NORTH);
+        frame1.getContentPane().add(new JScrollPane(table), BorderLayout.CENTER);
 
-                                        String info = db.getPackageList().get(i).toString();
-                                        data[i][4] = info.substring(info.lastIndexOf("Info:")+6);
+        // Only the latest search may show its results.
+        final AtomicInteger searches = new AtomicInteger();
+        final Timer typingDelay = new Timer(SEARCH_DELAY_MILLIS, e -> searchPackages(trackingno.getText(), results,
+                searches, false));
+        typingDelay.setRepeats(false);
 
-                                        break;
-                                    }
-                                }
-                            } catch (ClassCastException e) {
-                                logger.log(Level.SEVERE, "ClassCastException thrown, possible database corruption");
-                            } catch (Exception e) {
-                                logger.log(Level.SEVERE, "Unknown exception thrown! See stack trace..", e);
-                                e.printStackTrace();
-                            }
-                            final JTable table = new JTable(data, header);
-                            table.setPreferredScrollableViewportSize(new Dimension(800, 100));
-                            table.setFillsViewportHeight(true);
-                            table.setEnabled(false);
-
-                            JScrollPane scrollPane = new JScrollPane(table);
-                            display.add(scrollPane);
+        trackingno.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                typingDelay.restart();
+            }
 
-                            display.pack();
-                            display.setVisible(true);
-                            display.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
-                            logger.log(Level.INFO, "User in 'Package List' window");
+            public void removeUpdate(DocumentEvent e) {
+                typingDelay.restart();
+            }
 
+            public void changedUpdate(DocumentEvent e) {
+                typingDelay.restart();
+            }
+        });
 
-                        } else {
-                            JOptionPane.showMessageDialog(null, "Package not found in database");
-                            logger.log(Level.INFO, "User's search term was not found in the" +
-                                    "database");
-                        }
-                    }
-                };
-                qThread.start();
+        submit.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                logger.log(Level.INFO, "User submitted a tracking number for package");
+                typingDelay.stop();
+                searchPackages(trackingno.getText(), results, searches, true);
             }
         });
 
         exit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ev) {
+                typingDelay.stop();
                 frame1.dispose();
                 logger.log(Level.INFO, "User presses 'Exit' button");
             }
@@ -566,49 +533,57 @@ public class MainAppGUI extends JFrame {
         frame1.pack();
         this.setLocationRelativeTo(null); // Centers Program
         frame1.setVisible(true);
-        searchpanel.setVisible(true);
         logger.log(Level.INFO, "User opened up GUI option to search a package");
 
     }
 
+    /**
+     * searchPackages looks up packages by tracking number prefix or pattern on the worker pool and shows the matches in
+     * the search window. Called on the event dispatch thread.
+     *
+     * @param text The text typed by the user
+     * @param results The table model of the search window
+     * @param searches Counter of the searches started from the window; results of older searches are dropped
+     * @param submitted true if the user pressed 'Submit', in which case an empty result is reported
+     */
+    private void searchPackages(String text, DefaultTableModel results, AtomicInteger searches, boolean submitted) {
+        final int search = searches.incrementAndGet();
+        final String term = text.trim();
+        if (term.isEmpty()) {
+            results.setRowCount(0);
+            return;
+        }
+        Runnable qTask = new Runnable() {
+            public void run() {
+                final List<Package> found = submitted || PtnIndex.isPattern(term)
+                        ? db.searchPackagesByPtn(term, SEARCH_RESULT_LIMIT)
+                        : db.searchPackagesByPtnPrefix(term, SEARCH_RESULT_LIMIT);
+                SwingUtilities.invokeLater(() -> {
+                    if (search != searches.get()) {
+                        return;
+                    }
+                    results.setRowCount(0);
+                    for (Package p : found) {
+                        results.addRow(new Object[] {p.getClass().getName(), p.getPtn(), p.getSpecification(),
+                                p.getMailingClass(), p.getDetails()});
+                    }
+                    if (submitted && found.isEmpty()) {
+                        JOptionPane.showMessageDialog(null, "Package not found in database");
+                        logger.log(Level.INFO, "User's search term was not found in the" +
+                                "database");
+                    }
+                });
+            }
+        };
+        runInBackground(qTask);
+    }
+
     /**
      * List user UI is designed to list all of the users within the database of the system, and show all of their provided
      * information
      */
     public void listUsersUI() {
-        JFrame frame2 = new JFrame("User List");
-
-        String[] header = {"USER TYPE", "USER ID", "FIRST NAME", "LAST NAME", "OTHER DETAILS"};
-        Object[][] data = new Object[db.getUserList().size()][header.length];
-        try {
-            // Do something
-            for (int i = 0; i < db.getUserList().size(); ++i) {
-
-                data[i][0] = db.getUserList().get(i).getClass().getName();
-                data[i][1] = db.getUserList().get(i).getId();
-                data[i][2] = db.getUserList().get(i).getFirstName();
-                data[i][3] = db.getUserList().get(i).getLastName();
-                String info = db.getUserList().get(i).toString();
-                data[i][4] = info.substring(info.lastIndexOf("Info:")+6);
-            }
-        } catch (ClassCastException e) {
-            logger.log(Level.SEVERE, "ClassCastException thrown, possible database corruption");
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Unknown exception thrown! See stack trace..", e);
-            e.printStackTrace();
-        }
-        final JTable table = new JTable(data, header);
-        table.setPreferredScrollableViewportSize(new Dimension(800, 100));
-        table.setFillsViewportHeight(true);
-        table.setEnabled(false);
-
-        JScrollPane scrollPane = new JScrollPane(table);
-        frame2.add(scrollPane);
-
-        frame2.pack();
-        this.setLocationRelativeTo(null); // Centers Program
-        frame2.setVisible(true);
-        frame2.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        showTable(new JFrame("User List"), new UserTableModel(db));
         logger.log(Level.INFO, "User in 'User List' window");
 
     }
@@ -650,108 +625,24 @@ public class MainAppGUI extends JFrame {
         submit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ev) {
                 logger.log(Level.INFO, "User pressed 'Submit'");
-                int q = 0;
-                for (int i = 0; i < db.getUserDatabaseSize(); ++i, q++) {
-                    try {
-                        if (db.getUserAtPosition(i).getId() == Integer.parseInt(entry.getText())) {
-                            break;
-                        }
-                    } catch (NumberFormatException e) {
-                        Container frame = panel.getParent();
-                        do {
-                            frame = frame.getParent();
-                        } while (!(frame instanceof JFrame));
-                        JOptionPane.showMessageDialog(frame, "Error you have enter an invalid character"
-                                , "Failure!",
-                                JOptionPane.ERROR_MESSAGE);
-                        logger.log(Level.SEVERE, "User submitted non-integer values", e);
-
-                    } catch (Exception ex) {
-                        Container frame = panel.getParent();
-                        do {
-                            frame = frame.getParent();
-                        } while (!(frame instanceof JFrame));
-                        JOptionPane.showMessageDialog(frame, "You literally broke the program! Congratulations you won " +
-                                        "An unknown error has occurred!", "Critical Failure!",
-                                JOptionPane.ERROR_MESSAGE);
-                        logger.log(Level.SEVERE, "Unknown exception occurred", ex);
-
-                    }
-                }
-                final User temp = db.getUserAtPosition(q);
-                if (temp == null) {
-                    JOptionPane.showMessageDialog(frame, "User ID not found!", "Failure!",
+                final int id;
+                try {
+                    id = Integer.parseInt(entry.getText().trim());
+                } catch (NumberFormatException e) {
+                    JOptionPane.showMessageDialog(frame, "Error you have enter an invalid character"
+                            , "Failure!",
                             JOptionPane.ERROR_MESSAGE);
-                    logger.log(Level.INFO, "User did not enter a valid ID#");
+                    logger.log(Level.SEVERE, "User submitted non-integer values", e);
                     return;
-                } else {
-                    JPanel subpanel = new JPanel(new GridLayout(5, 1, 2, 5));
-                    JLabel first = new JLabel("First Name: ");
-                    JTextField firstname = new JTextField(temp.getFirstName(), 12);
-                    JLabel last = new JLabel("Last Name: ");
-                    JTextField lastname = new JTextField(temp.getLastName(), 12);
-                    JButton sub_submit = new JButton("Submit Changes");
-                    JLabel phoneNum = new JLabel("Phone Number: ");
-                    JTextField phoneNumb = new JTextField(12);
-                    JLabel uAdd = new JLabel("Customers Address: ");
-                    JTextField uAddress = new JTextField(12);
-                    JLabel salary = new JLabel("Monthly Salary: ");
-                    JTextField salaryTF = new JTextField(12);
-                    JLabel bank = new JLabel("Bank Account #: ");
-                    JTextField bankTF = new JTextField(12);
-                    JLabel type = new JLabel();
-
-                    subpanel.add(first);
-                    subpanel.add(firstname);
-                    subpanel.add(last);
-                    subpanel.add(lastname);
-
-                    if (temp instanceof Customer) {
-                        phoneNumb.setText(((Customer) temp).getPhoneNumber());
-                        uAddress.setText((((Customer) temp).getAddress()));
-                        type.setText("Type: Customer");
-
-                        subpanel.add(phoneNum);
-                        subpanel.add(phoneNumb);
-                        subpanel.add(uAdd);
-                        subpanel.add(uAddress);
-                    } else {
-                        salaryTF.setText(Float.toString(((Employee) temp).getMonthlySalary()));
-                        bankTF.setText(Integer.toString(((Employee) temp).getBankAccountNumber()));
-                        type.setText("Type: Employee");
-
-                        subpanel.add(salary);
-                        subpanel.add(salaryTF);
-                        subpanel.add(bank);
-                        subpanel.add(bankTF);
-                    }
-
-                    subpanel.add(sub_submit);
-                    subpanel.add(type);
-
-                    frame.getContentPane().removeAll();
-                    frame.getContentPane().add(subpanel);
-                    frame.validate();
-                    frame.pack();
-
-                    sub_submit.addActionListener(new ActionListener() {
-                        public void actionPerformed(ActionEvent x) {
-                            temp.setFirstName(firstname.getText());
-                            temp.setLastName(lastname.getText());
-                            if (temp instanceof Customer) {
-                                ((Customer) temp).setPhoneNumber(phoneNumb.getText());
-                                ((Customer) temp).setAddress((uAddress.getText()));
-                            } else {
-                                ((Employee) temp).setMonthlySalary(Float.parseFloat(salaryTF.getText()));
-                                ((Employee) temp).setBankAccountNumber(Integer.parseInt(bankTF.getText()));
-                            }
-                            JOptionPane.showMessageDialog(frame, "User has been successfully updated!", "Success!",
-                                    JOptionPane.INFORMATION_MESSAGE);
-                            logger.log(Level.INFO, "User able to update a user");
-                            frame.dispose();
-                        }
-                    });
                 }
+                // findUser waits for a background load to finish, so it must not run on the event dispatch thread.
+                Runnable qTask = new Runnable() {
+                    public void run() {
+                        final User found = db.findUser(id);
+                        SwingUtilities.invokeLater(() -> showUpdateUserForm(frame, found));
+                    }
+                };
+                runInBackground(qTask);
             }
         });
 
@@ -763,6 +654,88 @@ public class MainAppGUI extends JFrame {
         logger.log(Level.INFO, "User entered 'Update User' operation");
     }
 
+    /**
+     * showUpdateUserForm replaces the ID prompt of the 'Update a user' window with a form holding the user's current
+     * information. Called on the event dispatch thread.
+     *
+     * @param frame The 'Update a user' window
+     * @param temp The user to update, or null if the ID was not found
+     */
+    private void showUpdateUserForm(JFrame frame, User temp) {
+        if (temp == null) {
+            JOptionPane.showMessageDialog(frame, "User ID not found!", "Failure!",
+                    JOptionPane.ERROR_MESSAGE);
+            logger.log(Level.INFO, "User did not enter a valid ID#");
+            return;
+        }
+        JPanel subpanel = new JPanel(new GridLayout(5, 1, 2, 5));
+        JLabel first = new JLabel("First Name: ");
+        JTextField firstname = new JTextField(temp.getFirstName(), 12);
+        JLabel last = new JLabel("Last Name: ");
+        JTextField lastname = new JTextField(temp.getLastName(), 12);
+        JButton sub_submit = new JButton("Submit Changes");
+        JLabel phoneNum = new JLabel("Phone Number: ");
+        JTextField phoneNumb = new JTextField(12);
+        JLabel uAdd = new JLabel("Customers Address: ");
+        JTextField uAddress = new JTextField(12);
+        JLabel salary = new JLabel("Monthly Salary: ");
+        JTextField salaryTF = new JTextField(12);
+        JLabel bank = new JLabel("Bank Account #: ");
+        JTextField bankTF = new JTextField(12);
+        JLabel type = new JLabel();
+
+        subpanel.add(first);
+        subpanel.add(firstname);
+        subpanel.add(last);
+        subpanel.add(lastname);
+
+        if (temp instanceof Customer) {
+            phoneNumb.setText(((Customer) temp).getPhoneNumber());
+            uAddress.setText((((Customer) temp).getAddress()));
+            type.setText("Type: Customer");
+
+            subpanel.add(phoneNum);
+            subpanel.add(phoneNumb);
+            subpanel.add(uAdd);
+            subpanel.add(uAddress);
+        } else {
+            salaryTF.setText(Float.toString(((Employee) temp).getMonthlySalary()));
+            bankTF.setText(Integer.toString(((Employee) temp).getBankAccountNumber()));
+            type.setText("Type: Employee");
+
+            subpanel.add(salary);
+            subpanel.add(salaryTF);
+            subpanel.add(bank);
+            subpanel.add(bankTF);
+        }
+
+        subpanel.add(sub_submit);
+        subpanel.add(type);
+
+        frame.getContentPane().removeAll();
+        frame.getContentPane().add(subpanel);
+        frame.validate();
+        frame.pack();
+
+        sub_submit.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent x) {
+                if (temp instanceof Customer) {
+                    db.updateCustomer(temp.getId(), firstname.getText(), lastname.getText(),
+                            phoneNumb.getText(), uAddress.getText());
+                } else {
+                    db.updateEmployee(temp.getId(), firstname.getText(), lastname.getText(),
+                            ((Employee) temp).getSocialSecurityNumber(),
+                            Float.parseFloat(salaryTF.getText()),
+                            Integer.parseInt(bankTF.getText()));
+                }
+                JOptionPane.showMessageDialog(frame, "User has been successfully updated!", "Success!",
+                        JOptionPane.INFORMATION_MESSAGE);
+                logger.log(Level.INFO, "User able to update a user");
+                frame.dispose();
+            }
+        });
+    }
+
 
     /**
      * Deliver Package UI is designed to allow the user to process a delivery, by entering information such as the
@@ -792,40 +765,7 @@ public class MainAppGUI extends JFrame {
      */
     public void showAllCompletedTransactionsUI() {
         //Completed
-        JFrame frame2 = new JFrame("Transaction List");
-
-        String[] header = {"CUSTOMER ID", "EMPLOYEE ID", "PTN", "SHIPPING DATE", "DELIVERY DATE", "PRICE"};
-        Object[][] data = new Object[db.getTransactionList().size()][header.length];
-        try {
-            // Do something
-            for (int i = 0; i < db.getTransactionList().size(); ++i) {
-
-                data[i][0] = db.getTransactionList().get(i).getCustomerId();
-                data[i][1] = db.getTransactionList().get(i).getEmployeeId();
-                data[i][2] = db.getTransactionList().get(i).getPtn();
-                data[i][3] = db.getTransactionList().get(i).getShippingDate();
-                data[i][4] = db.getTransactionList().get(i).getDeliveryDate();
-                data[i][5] = db.getTransactionList().get(i).getPrice();
-
-            }
-        } catch (ClassCastException e) {
-            logger.log(Level.SEVERE, "ClassCastException thrown, possible database corruption");
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Unknown exception thrown! See stack trace..", e);
-            e.printStackTrace();
-        }
-        final JTable table = new JTable(data, header);
-        table.setPreferredScrollableViewportSize(new Dimension(800, 100));
-        table.setFillsViewportHeight(true);
-        table.setEnabled(false);
-
-        JScrollPane scrollPane = new JScrollPane(table);
-        frame2.add(scrollPane);
-
-        frame2.pack();
-        this.setLocationRelativeTo(null); // Centers Program
-        frame2.setVisible(true);
-        frame2.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        showTable(new JFrame("Transaction List"), new TransactionTableModel(db));
         logger.log(Level.INFO, "User in 'All Transaction List' window");
 
     }
@@ -883,7 +823,7 @@ public class MainAppGUI extends JFrame {
 
         cSUBMIT.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         String first, last, phone;
                         String dl;
@@ -922,7 +862,7 @@ public class MainAppGUI extends JFrame {
 
 
                             if (err.isEmpty()) {
-                                Customer newObj = new Customer(db.idGen(), first, last, phone, dl);
+                                Customer newObj = new Customer(db.allocateUserId(), first, last, phone, dl);
                                 if (db.addUserDirectly(newObj)) {
                                     Container frame = card1.getParent();
                                     do {
@@ -959,7 +899,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -1021,7 +961,7 @@ public class MainAppGUI extends JFrame {
 
         eSUBMIT.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
                         String first, last;
                         int bank, SSN;
@@ -1059,7 +999,7 @@ public class MainAppGUI extends JFrame {
                         SSN = Integer.parseInt(eSSNTF.getText());
 
                         if (err.isEmpty()) {
-                            Employee newObj = new Employee(db.idGen(), first, last, SSN, salary, bank);
+                            Employee newObj = new Employee(db.allocateUserId(), first, last, SSN, salary, bank);
                             if (db.addUserDirectly(newObj)) {
                                 Container frame = card2.getParent();
                                 do {
@@ -1090,7 +1030,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -1159,7 +1099,7 @@ public class MainAppGUI extends JFrame {
 
         cSUBMIT.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {{
                         int CustomerID, EmployeeID;
                         String trackingNumber;
@@ -1210,11 +1150,21 @@ public class MainAppGUI extends JFrame {
 
                         price = Float.parseFloat(cPriceTF.getText());
 
+                        if (!db.isCustomer(CustomerID)) {
+                            err.add("CustomerID " + CustomerID + " is not a customer in the database");
+                            logger.log(Level.WARNING, "User submitted an unknown CustomerID");
+                        }
+
+                        if (!db.isEmployee(EmployeeID)) {
+                            err.add("EmployeeID " + EmployeeID + " is not an employee in the database");
+                            logger.log(Level.WARNING, "User submitted an unknown EmployeeID");
+                        }
+
                         if(err.isEmpty()){
                             try {
-                                // Adding package to the transaction store
-                                db.addShppingTransaction(CustomerID,EmployeeID,trackingNumber,today,today,price);
-                                db.deletePackage(trackingNumber);
+                                // Recording the transaction and removing the package in one step
+                                db.deliverPackages(Collections.singletonList(
+                                        new Delivery(CustomerID, EmployeeID, trackingNumber, today, today, price)));
 
                                 Container frame = pane.getParent();
 
@@ -1224,6 +1174,14 @@ public class MainAppGUI extends JFrame {
                                 JOptionPane.showMessageDialog(frame, "Package has been successfully added!\n",
                                         "Success!", JOptionPane.INFORMATION_MESSAGE);
                                 logger.log(Level.INFO, "User able to successfully add an Envelope object");
+                            } catch (BadInputException ex) {
+                                Container frame = pane.getParent();
+                                do {
+                                    frame = frame.getParent();
+                                } while (!(frame instanceof JFrame));
+                                JOptionPane.showMessageDialog(frame, ex.getMessage(), "Failure!",
+                                        JOptionPane.ERROR_MESSAGE);
+                                logger.log(Level.WARNING, "Delivery rejected: " + ex.getMessage());
                             } catch (Exception e) {
                                 Container frame = pane.getParent();
                                 do {
@@ -1244,11 +1202,19 @@ public class MainAppGUI extends JFrame {
                                     logger.log(Level.INFO, "Message dialog shown to user indicating bad input" + e.toString());
                                 }
                             }
+                        } else {
+                            Container frame = card1.getParent();
+                            do {
+                                frame = frame.getParent();
+                            } while (!(frame instanceof JFrame));
+                            for (String i : err) {
+                                JOptionPane.showMessageDialog(frame, i, "Failure!", JOptionPane.ERROR_MESSAGE);
+                            }
                         }
 
                     }}
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -1290,6 +1256,49 @@ public class MainAppGUI extends JFrame {
         });
     }
 
+    /**
+     * runInBackground hands a task to the shared worker pool instead of starting a new thread for it. If too many
+     * actions are already pending the task is dropped, and the user hears a beep and can try again.
+     *
+     * @param task The work to run off the event dispatch thread
+     */
+    private void runInBackground(Runnable task) {
+        if (!workers.submit(task)) {
+            logger.log(Level.WARNING, "Too many actions pending, request dropped");
+            Toolkit.getDefaultToolkit().beep();
+        }
+    }
+
+    /**
+     * showTable shows a store table in a scrollable window. The table reads its rows from the store as they are
+     * painted and picks up changes made while the window is open.
+     *
+     * @param frame The window to show the table in
+     * @param model The table to show
+     */
+    private void showTable(JFrame frame, StoreTableModel model) {
+        final JTable table = new JTable(model);
+        table.setPreferredScrollableViewportSize(new Dimension(800, 100));
+        table.setFillsViewportHeight(true);
+        table.setEnabled(false);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        frame.add(scrollPane);
+
+        final Timer refresher = model.startRefreshing();
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refresher.stop();
+            }
+        });
+
+        frame.pack();
+        this.setLocationRelativeTo(null); // Centers Program
+        frame.setVisible(true);
+        frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+    }
+
     /**
      * The function ClosesOP is designed to close out of the program, and save the information that was changed or
      * modified within the program into a serializable fil.
@@ -1301,7 +1310,10 @@ public class MainAppGUI extends JFrame {
      */
     public int closeOP() throws Exception {
         try {
+            // Let running actions finish before the final save.
+            workers.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
             db.writeDatabase();
+            db.closeDatabase();
             logger.log(Level.INFO, "User has closed the program via 'Exit' in main menu, exit successful!");
 
             System.exit(0);
@@ -1390,7 +1402,7 @@ public class MainAppGUI extends JFrame {
         envelopeSubmit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 {
-                    Thread qThread = new Thread() {
+                    Runnable qTask = new Runnable() {
                         public void run() {
                             String tracking, specification, mailing;
                             int height, width;
@@ -1403,9 +1415,6 @@ public class MainAppGUI extends JFrame {
                             } else if (trackINPUT.getText().length() != 5) {
                                 errorArray.add("'VIN' length is too long!");
                                 logger.log(Level.WARNING, "User submitted String that is too long");
-                            } else if (db.packageExists(trackINPUT.getText())) {
-                                errorArray.add("Package already exists in the database!");
-                                logger.log(Level.WARNING, "User submitted package that already exists");
                             }
 
                             // Setting the tracking number
@@ -1449,17 +1458,23 @@ public class MainAppGUI extends JFrame {
 
                             if (errorArray.isEmpty()) {
                                 try {
-                                    // Adding package to the shipping store
-                                    db.addEnvelope(tracking, specification, mailing, height, width);
+                                    // Adding package to the shipping store; refused if the tracking number is taken
+                                    boolean added = db.addEnvelope(tracking, specification, mailing, height, width);
 
                                     Container frame = envelopeTab.getParent();
 
                                     do {
                                         frame = frame.getParent();
                                     } while (!(frame instanceof JFrame));
-                                    JOptionPane.showMessageDialog(frame, "Package has been successfully added!\n",
-                                            "Success!", JOptionPane.INFORMATION_MESSAGE);
-                                    logger.log(Level.INFO, "User able to successfully add an Envelope object");
+                                    if (added) {
+                                        JOptionPane.showMessageDialog(frame, "Package has been successfully added!\n",
+                                                "Success!", JOptionPane.INFORMATION_MESSAGE);
+                                        logger.log(Level.INFO, "User able to successfully add an Envelope object");
+                                    } else {
+                                        JOptionPane.showMessageDialog(frame, "Package already exists in the database!",
+                                                "Failure!", JOptionPane.ERROR_MESSAGE);
+                                        logger.log(Level.WARNING, "User submitted package that already exists");
+                                    }
                                 } catch (Exception e) {
                                     Container frame = envelopeTab.getParent();
                                     do {
@@ -1483,7 +1498,7 @@ public class MainAppGUI extends JFrame {
                             }
                         }
                     };
-                    qThread.start();
+                    runInBackground(qTask);
                 }
             }
         });
@@ -1556,7 +1571,7 @@ public class MainAppGUI extends JFrame {
         // Adding a box to the package store
         bSubmit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
 
                         String tracking, specification, mailing;
@@ -1570,9 +1585,6 @@ public class MainAppGUI extends JFrame {
                         } else if (bTrackInput.getText().length() != 5) {
                             err.add("'tracking number' length is not 5 characters!");
                             logger.log(Level.WARNING, "User submitted tracking number that is wrong length");
-                        } else if (db.packageExists(bTrackInput.getText())) {
-                            err.add("'VIN' already exists in the database!");
-                            logger.log(Level.WARNING, "Package already exists, invalid tracking number to add");
                         }
 
                         tracking = bTrackInput.getText();
@@ -1612,9 +1624,8 @@ public class MainAppGUI extends JFrame {
                         volume = Integer.parseInt(bVolumeT.getText());
 
                         if (err.isEmpty()) {
-                            db.addBox(tracking, specification, mailing, dimension, volume);
-
-                            if (db.findPackage(tracking).ptn == tracking) {
+                            // Refused if the tracking number is taken
+                            if (db.addBox(tracking, specification, mailing, dimension, volume)) {
                                 Container frame = boxTab.getParent();
                                 do {
                                     frame = frame.getParent();
@@ -1627,10 +1638,9 @@ public class MainAppGUI extends JFrame {
                                 do {
                                     frame = frame.getParent();
                                 } while (!(frame instanceof JFrame));
-                                JOptionPane.showMessageDialog(frame, "box adding method failed, " +
-                                                "despite criteria being met. An unknown error has occurred!", "Failure!",
-                                        JOptionPane.ERROR_MESSAGE);
-                                logger.log(Level.INFO, "box failed unexpectedly");
+                                JOptionPane.showMessageDialog(frame, "'VIN' already exists in the database!",
+                                        "Failure!", JOptionPane.ERROR_MESSAGE);
+                                logger.log(Level.WARNING, "Package already exists, invalid tracking number to add");
                             }
                         } else {
                             Container frame = boxTab.getParent();
@@ -1643,7 +1653,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -1703,7 +1713,7 @@ public class MainAppGUI extends JFrame {
 
         cSUBMIT.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
 
                         String tracking, spec, mailing, content;
@@ -1717,9 +1727,6 @@ public class MainAppGUI extends JFrame {
                         } else if (cTrackINPUT.getText().length() != 5) {
                             err.add("'tracking number' length is needs to be 5!");
                             logger.log(Level.WARNING, "Number is not 5 bad");
-                        } else if (db.packageExists(cTrackINPUT.getText())) {
-                            err.add("'tracking number' already exists in the database!");
-                            logger.log(Level.WARNING, "tracking# already exists");
                         }
 
                         tracking = cTrackINPUT.getText();
@@ -1756,8 +1763,8 @@ public class MainAppGUI extends JFrame {
                         content = cContentINPUT.getText();
 
                         if (err.isEmpty()) {
-                            db.addCrate(tracking, spec, mailing, weight, content);
-                            if (db.findPackage(tracking).ptn.matches(tracking)) {
+                            // Refused if the tracking number is taken
+                            if (db.addCrate(tracking, spec, mailing, weight, content)) {
                                 Container frame = cratePanel.getParent();
                                 do {
                                     frame = frame.getParent();
@@ -1770,10 +1777,9 @@ public class MainAppGUI extends JFrame {
                                 do {
                                     frame = frame.getParent();
                                 } while (!(frame instanceof JFrame));
-                                JOptionPane.showMessageDialog(frame, "addCrate method failed, " +
-                                                "despite criteria being met. An unknown error has occurred!", "Failure!",
-                                        JOptionPane.ERROR_MESSAGE);
-                                logger.log(Level.SEVERE, "crate failed");
+                                JOptionPane.showMessageDialog(frame, "'tracking number' already exists in the database!",
+                                        "Failure!", JOptionPane.ERROR_MESSAGE);
+                                logger.log(Level.WARNING, "tracking# already exists");
                             }
                         } else {
                             Container frame = cratePanel.getParent();
@@ -1786,7 +1792,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -1855,7 +1861,7 @@ public class MainAppGUI extends JFrame {
 
         drumSubmit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Thread qThread = new Thread() {
+                Runnable qTask = new Runnable() {
                     public void run() {
 
                         String tracking, spec, mailing, material;
@@ -1869,9 +1875,6 @@ public class MainAppGUI extends JFrame {
                         } else if (dTrackingINPUT.getText().length() != 5) {
                             err.add("'Tracking number' length is needs to be 5!");
                             logger.log(Level.WARNING, "Number is not 5 bad!!!!!!!!!!!");
-                        } else if (db.packageExists(dTrackingINPUT.getText())) {
-                            err.add("'tracking number' already exists in the database!");
-                            logger.log(Level.WARNING, "tracking# already exists");
                         }
 
                         tracking = dTrackingINPUT.getText();
@@ -1909,8 +1912,8 @@ public class MainAppGUI extends JFrame {
                         diameter = Float.parseFloat(drumDiameterINPUT.getText());
 
                         if (err.isEmpty()) {
-                            db.addDrum(tracking, spec, mailing, material, diameter);
-                            if (db.findPackage(tracking).ptn.matches(tracking)) {
+                            // Refused if the tracking number is taken
+                            if (db.addDrum(tracking, spec, mailing, material, diameter)) {
                                 Container frame = drumPanel.getParent();
                                 do {
                                     frame = frame.getParent();
@@ -1923,10 +1926,9 @@ public class MainAppGUI extends JFrame {
                                 do {
                                     frame = frame.getParent();
                                 } while (!(frame instanceof JFrame));
-                                JOptionPane.showMessageDialog(frame, "addDrum method failed, " +
-                                                "despite criteria being met. An unknown error has occurred!", "Failure!",
-                                        JOptionPane.ERROR_MESSAGE);
-                                logger.log(Level.SEVERE, "drum critically failed");
+                                JOptionPane.showMessageDialog(frame, "'tracking number' already exists in the database!",
+                                        "Failure!", JOptionPane.ERROR_MESSAGE);
+                                logger.log(Level.WARNING, "tracking# already exists");
                             }
                         } else {
                             Container frame = drumPanel.getParent();
@@ -1939,7 +1941,7 @@ public class MainAppGUI extends JFrame {
                         }
                     }
                 };
-                qThread.start();
+                runInBackground(qTask);
             }
         });
 
@@ -0,0 +1,598 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * MappedTransactionTable keeps the transaction history in fixed-width records
+ * inside memory-mapped segment files, e.g. ShippingStore.tx.0,
+ * ShippingStore.tx.1. Opening the table only maps the files, so the history
+ * costs neither heap nor load time, and a new transaction is written in
+ * place instead of rewriting the table on every save.
+ *
+ * Each segment starts with a 64 byte header (magic, version, record size,
+ * capacity and the number of its rows already forced to disk) followed by
+ * RECORDS_PER_SEGMENT records of RECORD_SIZE bytes:
+ *
+ *     0  customer ID      int
+ *     4  employee ID      int
+ *     8  shipping date    long, epoch milliseconds or NO_DATE
+ *    16  delivery date    long, epoch milliseconds or NO_DATE
+ *    24  price            float
+ *    28  checksum         int, CRC-32 of the row, its number and its PTN
+ *    32  LSN              long
+ *    40  PTN length       int, bytes of UTF-8, or -1 for no PTN
+ *    44  PTN              the bytes if there are at most INLINE_PTN_BYTES,
+ *                         else their long offset in the overflow file
+ *
+ * Longer tracking numbers go to the overflow file, e.g. ShippingStore.tx.ptn,
+ * so there is no limit on their length.
+ *
+ * Rows are forced to disk by the checkpoint before the journal segments
+ * holding them are deleted. Until then the operating system may write the
+ * pages of a segment in any order, so after a crash only the rows counted
+ * in the header are trusted. open() checks the rows after them and keeps
+ * them up to the first one that is incomplete; its LSN and everything newer
+ * is then replayed from the journal, and the rest of the segment is
+ * cleared so later appends cannot be mixed with old rows.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class MappedTransactionTable extends TransactionTable {
+
+    public static final int RECORD_SIZE = 64;
+    public static final int RECORDS_PER_SEGMENT = 1 << 16;
+    public static final int INLINE_PTN_BYTES = 20;
+
+    private static final int MAGIC = 0x53535458; // "SSTX"
+    private static final short VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final long SEGMENT_SIZE = HEADER_SIZE + (long) RECORDS_PER_SEGMENT * RECORD_SIZE;
+
+    private static final int HEADER_FORCED = 12;
+
+    private static final int CUSTOMER_ID = 0;
+    private static final int EMPLOYEE_ID = 4;
+    private static final int SHIPPING_TIME = 8;
+    private static final int DELIVERY_TIME = 16;
+    private static final int PRICE = 24;
+    private static final int CHECKSUM = 28;
+    private static final int LSN = 32;
+    private static final int PTN_LENGTH = 40;
+    private static final int PTN = 44;
+
+    private final File directory;
+    private final String prefix;
+    private final List<FileChannel> channels = new ArrayList<FileChannel>();
+
+    // Opened when the first long PTN is written. Positional reads and
+    // writes on a FileChannel are thread-safe.
+    private volatile FileChannel overflow;
+    private long overflowEnd;
+
+    // Readers load size before segments; append publishes them the other way
+    // round, so every row below size lies in a mapped segment.
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile int size;
+    private long lastLsn;
+    private int firstUnforced;
+
+    /**
+     * Private constructor, use open() to obtain a table.
+     */
+    private MappedTransactionTable(File base) {
+        File absolute = base.getAbsoluteFile();
+        this.directory = absolute.getParentFile();
+        this.prefix = absolute.getName() + ".";
+    }
+
+    /**
+     * Open the table, mapping every existing segment. The table starts out
+     * empty if no segment exists yet. A table made by create() that was not
+     * moved into place completely is moved first. Rows that were not forced
+     * to disk are kept only if they are complete.
+     *
+     * @param base The table base file; segments are named base.N
+     * @return The opened table.
+     * @throws IOException if a segment is missing, damaged, or cannot be mapped
+     */
+    public static MappedTransactionTable open(File base) throws IOException {
+        MappedTransactionTable table = new MappedTransactionTable(base);
+        try {
+            table.installCreated();
+            File overflowFile = table.overflowFile();
+            if (overflowFile.exists()) {
+                table.openOverflow();
+            }
+            List<Integer> numbers = table.listSegments();
+            boolean ended = false;
+            for (int i = 0; i < numbers.size(); i++) {
+                if (numbers.get(i) != i) {
+                    throw new IOException("Transaction segment " + table.segmentFile(i) + " is missing");
+                }
+                MappedByteBuffer segment = table.mapSegment(i);
+                int forced = segment.getInt(HEADER_FORCED);
+                // Only the last rows may leave a segment part full; segments
+                // after it are empty ones made by reserve(), or hold rows
+                // lost in a crash.
+                if (forced < 0 || forced > RECORDS_PER_SEGMENT || (ended && forced != 0)) {
+                    throw new IOException("Transaction segment " + table.segmentFile(i) + " is damaged");
+                }
+                int count = ended ? 0 : table.completeRows(segment, i, forced);
+                if (count < RECORDS_PER_SEGMENT) {
+                    clearRows(segment, count);
+                    ended = true;
+                }
+                table.size += count;
+            }
+            if (table.size > 0) {
+                int last = table.size - 1;
+                table.lastLsn = table.segment(last).getLong(offset(last) + LSN);
+            }
+            table.firstUnforced = table.lastRowSegment();
+        } catch (IOException ex) {
+            table.close();
+            throw ex;
+        }
+        return table;
+    }
+
+    /**
+     * Create a table holding the given rows in place of the table at base,
+     * e.g. to move a history saved in the database image into its own
+     * files. The table is built in a staging directory that is renamed when
+     * it is complete, so a crash leaves either none of the rows or all of
+     * them; open() finishes moving the files into place.
+     *
+     * @param base The table base file; the table there must have no rows
+     * and must not be open
+     * @param rows The rows
+     * @param lsn LSN passed with every row
+     * @throws IOException if the table cannot be written
+     */
+    public static void create(File base, List<Transaction> rows, long lsn) throws IOException {
+        MappedTransactionTable target = new MappedTransactionTable(base);
+        File staging = target.stagingDirectory();
+        deleteDirectory(staging);
+        if (!staging.mkdir()) {
+            throw new IOException("Cannot create " + staging);
+        }
+        MappedTransactionTable table = open(new File(staging, base.getAbsoluteFile().getName()));
+        try {
+            for (Transaction t : rows) {
+                table.append(t, lsn);
+            }
+        } finally {
+            table.close();
+        }
+
+        // The old files hold no rows; once they are gone the rename is the
+        // only step that makes the new rows visible.
+        for (int number : target.listSegments()) {
+            Files.deleteIfExists(target.segmentFile(number).toPath());
+        }
+        Files.deleteIfExists(target.overflowFile().toPath());
+        Files.move(staging.toPath(), target.createdDirectory().toPath(), StandardCopyOption.ATOMIC_MOVE);
+        target.installCreated();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCustomerId(int row) {
+        return segment(row).getInt(offset(row) + CUSTOMER_ID);
+    }
+
+    @Override
+    public int getEmployeeId(int row) {
+        return segment(row).getInt(offset(row) + EMPLOYEE_ID);
+    }
+
+    @Override
+    public String getPtn(int row) {
+        MappedByteBuffer segment = segment(row);
+        int offset = offset(row);
+        int length = segment.getInt(offset + PTN_LENGTH);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        if (length <= INLINE_PTN_BYTES) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = segment.get(offset + PTN + i);
+            }
+        } else {
+            try {
+                readOverflow(segment.getLong(offset + PTN), bytes);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long getShippingTime(int row) {
+        return segment(row).getLong(offset(row) + SHIPPING_TIME);
+    }
+
+    @Override
+    public long getDeliveryTime(int row) {
+        return segment(row).getLong(offset(row) + DELIVERY_TIME);
+    }
+
+    @Override
+    public float getPrice(int row) {
+        return segment(row).getFloat(offset(row) + PRICE);
+    }
+
+    @Override
+    public synchronized void append(Transaction t, long lsn) throws IOException {
+        byte[] ptn = t.getPtn() == null ? null : t.getPtn().getBytes(StandardCharsets.UTF_8);
+
+        int row = size;
+        if (row == segments.length * RECORDS_PER_SEGMENT) {
+            mapSegment(segments.length);
+        }
+        // Written before the row, so the row never points past the file.
+        long ptnOffset = ptn != null && ptn.length > INLINE_PTN_BYTES ? writeOverflow(ptn) : 0;
+        MappedByteBuffer segment = segment(row);
+        int offset = offset(row);
+        segment.putInt(offset + CUSTOMER_ID, t.getCustomerId());
+        segment.putInt(offset + EMPLOYEE_ID, t.getEmployeeId());
+        segment.putLong(offset + SHIPPING_TIME,
+                t.getShippingDate() == null ? NO_DATE : t.getShippingDate().getTime());
+        segment.putLong(offset + DELIVERY_TIME,
+                t.getDeliveryDate() == null ? NO_DATE : t.getDeliveryDate().getTime());
+        segment.putFloat(offset + PRICE, t.getPrice());
+        if (ptn == null) {
+            segment.putInt(offset + PTN_LENGTH, -1);
+        } else if (ptn.length <= INLINE_PTN_BYTES) {
+            segment.putInt(offset + PTN_LENGTH, ptn.length);
+            for (int i = 0; i < ptn.length; i++) {
+                segment.put(offset + PTN + i, ptn[i]);
+            }
+        } else {
+            segment.putInt(offset + PTN_LENGTH, ptn.length);
+            segment.putLong(offset + PTN, ptnOffset);
+        }
+
+        segment.putLong(offset + LSN, lsn);
+        segment.putInt(offset + CHECKSUM,
+                checksum(segment, row, ptn != null && ptn.length > INLINE_PTN_BYTES ? ptn : null));
+
+        lastLsn = Math.max(lastLsn, lsn);
+        size = row + 1;
+    }
+
+    /**
+     * Map the segments that the given number of further rows will need.
+     */
+    @Override
+    public synchronized void reserve(int rows) throws IOException {
+        long needed = (long) size + rows;
+        while ((long) segments.length * RECORDS_PER_SEGMENT < needed) {
+            mapSegment(segments.length);
+        }
+    }
+
+    @Override
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Force every row appended since the last call to disk, then count them
+     * in the segment headers. Segments that were already full at that call
+     * are not forced again, and neither are reserved segments that hold no
+     * rows yet.
+     * @throws IOException if the overflow file cannot be synced
+     */
+    @Override
+    public synchronized void force() throws IOException {
+        if (overflow != null) {
+            overflow.force(false);
+        }
+        MappedByteBuffer[] mapped = segments;
+        int last = Math.min(lastRowSegment(), mapped.length - 1);
+        for (int i = firstUnforced; i <= last; i++) {
+            mapped[i].force();
+        }
+        // Only rows already on disk may be counted, or a crash could leave
+        // the header trusting rows that were never written.
+        for (int i = firstUnforced; i <= last; i++) {
+            mapped[i].putInt(HEADER_FORCED, Math.min(size - i * RECORDS_PER_SEGMENT, RECORDS_PER_SEGMENT));
+            mapped[i].force();
+        }
+        firstUnforced = lastRowSegment();
+    }
+
+    /**
+     * Force outstanding rows to disk and close the segment files.
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+        channels.clear();
+        overflow = null;
+    }
+
+    /**
+     * Auxiliary private method that maps a segment, creating and formatting
+     * it if it does not exist yet. The segment is published to readers
+     * before any of its rows are counted in size.
+     */
+    private MappedByteBuffer mapSegment(int number) throws IOException {
+        File file = segmentFile(number);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        boolean created = channel.size() == 0;
+        if (!created && channel.size() != SEGMENT_SIZE) {
+            throw new IOException("Transaction segment " + file + " has the wrong size");
+        }
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        if (created) {
+            segment.putInt(0, MAGIC);
+            segment.putShort(4, VERSION);
+            segment.putShort(6, (short) RECORD_SIZE);
+            segment.putInt(8, RECORDS_PER_SEGMENT);
+            segment.force();
+        } else if (segment.getInt(0) != MAGIC) {
+            throw new IOException("Not a ShippingStore transaction segment: " + file);
+        } else if (segment.getShort(4) != VERSION || segment.getShort(6) != RECORD_SIZE
+                || segment.getInt(8) != RECORDS_PER_SEGMENT) {
+            throw new IOException("Unsupported transaction segment format in " + file);
+        }
+        if (number == segments.length) {
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, number + 1);
+            grown[number] = segment;
+            segments = grown;
+        }
+        return segment;
+    }
+
+    /**
+     * Auxiliary private method that counts the complete rows of a segment
+     * while opening: the forced rows, and after them every row whose
+     * checksum matches, up to the first one that does not.
+     */
+    private int completeRows(MappedByteBuffer segment, int number, int forced) {
+        int row = forced;
+        while (row < RECORDS_PER_SEGMENT) {
+            int global = (number << SEGMENT_SHIFT) + row;
+            int offset = offset(global);
+            int length = segment.getInt(offset + PTN_LENGTH);
+            byte[] ptn = null;
+            if (length > INLINE_PTN_BYTES) {
+                if (length > overflowEnd) {
+                    break;
+                }
+                ptn = new byte[length];
+                try {
+                    readOverflow(segment.getLong(offset + PTN), ptn);
+                } catch (IOException ex) {
+                    // The PTN never reached the disk.
+                    break;
+                }
+            }
+            if (segment.getInt(offset + CHECKSUM) != checksum(segment, global, ptn)) {
+                break;
+            }
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Auxiliary private method that zeroes the rows of a segment from the
+     * given one on, where they are not zero already.
+     */
+    private static void clearRows(MappedByteBuffer segment, int from) {
+        boolean cleared = false;
+        for (int row = from; row < RECORDS_PER_SEGMENT; row++) {
+            int offset = HEADER_SIZE + row * RECORD_SIZE;
+            for (int i = 0; i < RECORD_SIZE; i += 8) {
+                if (segment.getLong(offset + i) != 0) {
+                    for (int j = 0; j < RECORD_SIZE; j += 8) {
+                        segment.putLong(offset + j, 0);
+                    }
+                    cleared = true;
+                    break;
+                }
+            }
+        }
+        if (cleared) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Auxiliary private method that computes the checksum of a row. The
+     * row number is included, so a row left at another position does not
+     * match.
+     *
+     * @param ptn The PTN if it is in the overflow file, else null
+     */
+    private static int checksum(MappedByteBuffer segment, int row, byte[] ptn) {
+        int offset = offset(row);
+        byte[] bytes = new byte[RECORD_SIZE + 4];
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            bytes[i] = segment.get(offset + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            bytes[CHECKSUM + i] = 0;
+            bytes[RECORD_SIZE + i] = (byte) (row >>> (24 - 8 * i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (ptn != null) {
+            crc.update(ptn);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Auxiliary private method that opens the overflow file, creating it if
+     * it does not exist yet. New PTNs are written at its end; bytes that no
+     * row points to, e.g. from a crash, are left where they are.
+     */
+    private FileChannel openOverflow() throws IOException {
+        FileChannel channel = FileChannel.open(overflowFile().toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        overflowEnd = channel.size();
+        overflow = channel;
+        return channel;
+    }
+
+    /**
+     * Auxiliary private method that appends a PTN to the overflow file.
+     * Called from append.
+     *
+     * @return The offset of the PTN in the file
+     */
+    private long writeOverflow(byte[] ptn) throws IOException {
+        FileChannel channel = overflow == null ? openOverflow() : overflow;
+        long offset = overflowEnd;
+        ByteBuffer buffer = ByteBuffer.wrap(ptn);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        overflowEnd = offset + ptn.length;
+        return offset;
+    }
+
+    /**
+     * Auxiliary private method that reads a PTN from the overflow file.
+     */
+    private void readOverflow(long offset, byte[] ptn) throws IOException {
+        FileChannel channel = overflow;
+        if (channel == null) {
+            throw new IOException("Transaction overflow file " + overflowFile() + " is missing");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(ptn);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Transaction overflow file " + overflowFile() + " is truncated");
+            }
+        }
+    }
+
+    /**
+     * Auxiliary private method that moves the files of a table made by
+     * create() into place, if there is one. Files moved before a crash are
+     * no longer in the directory, so this can simply be repeated.
+     */
+    private void installCreated() throws IOException {
+        File created = createdDirectory();
+        File[] files = created.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Files.move(file.toPath(), new File(directory, file.getName()).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.delete(created.toPath());
+    }
+
+    /**
+     * Auxiliary private method that deletes a directory of files, if it
+     * exists.
+     */
+    private static void deleteDirectory(File dir) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir.toPath());
+    }
+
+    /**
+     * Auxiliary private method that lists the existing segment numbers in
+     * ascending order.
+     */
+    private List<Integer> listSegments() {
+        List<Integer> numbers = new ArrayList<Integer>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(prefix)) {
+                    try {
+                        numbers.add(Integer.parseInt(name.substring(prefix.length())));
+                    } catch (NumberFormatException ex) {
+                        // Not a segment, e.g. a backup copy.
+                    }
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, prefix + number);
+    }
+
+    private File overflowFile() {
+        return new File(directory, prefix + "ptn");
+    }
+
+    private File stagingDirectory() {
+        return new File(directory, prefix + "staging");
+    }
+
+    private File createdDirectory() {
+        return new File(directory, prefix + "created");
+    }
+
+    /**
+     * Auxiliary private method that gets the number of the segment holding
+     * the last row, or 0 if there are no rows.
+     */
+    private int lastRowSegment() {
+        return size == 0 ? 0 : (size - 1) >>> SEGMENT_SHIFT;
+    }
+
+    private MappedByteBuffer segment(int row) {
+        return segments[row >>> SEGMENT_SHIFT];
+    }
+
+    private static int offset(int row) {
+        return HEADER_SIZE + (row & (RECORDS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+}
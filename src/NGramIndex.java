@@ -0,0 +1,163 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * NGramIndex finds values whose text is similar to a query, even when the
+ * query is only a fragment or slightly misspelled. Every word is cut into
+ * overlapping trigrams, padded like "  j", " jo", "joh", "ohn", "hn " for
+ * "john", and the index maps each trigram to the values that have it. A
+ * query only reads the posting sets of its own trigrams.
+ *
+ * A value matches if it has at least MIN_MATCH of the query's trigrams.
+ * Matches are ranked by that fraction, then by how much of the value's text
+ * the query covers, so "john" ranks "John Smith" above "Johnson Street".
+ *
+ * A value must be removed with the same text it was added with. Values are
+ * compared with equals(), which for the entity classes means identity. The
+ * index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class NGramIndex<V> {
+
+    public static final double MIN_MATCH = 0.5;
+
+    private static final int N = 3;
+
+    private final Map<String, Set<V>> postings = new HashMap<String, Set<V>>();
+    private final Map<V, Integer> gramCounts = new HashMap<V, Integer>();
+
+    /**
+     * Record a value under every trigram of a text.
+     * @param value The value
+     * @param text The text; null is treated as empty
+     */
+    public void add(V value, String text) {
+        Set<String> grams = grams(text);
+        for (String gram : grams) {
+            Set<V> values = postings.get(gram);
+            if (values == null) {
+                values = new LinkedHashSet<V>();
+                postings.put(gram, values);
+            }
+            values.add(value);
+        }
+        gramCounts.put(value, grams.size());
+    }
+
+    /**
+     * Remove a value from every trigram of a text.
+     * @param value The value
+     * @param text The text the value was added with
+     */
+    public void remove(V value, String text) {
+        for (String gram : grams(text)) {
+            Set<V> values = postings.get(gram);
+            if (values != null && values.remove(value) && values.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        gramCounts.remove(value);
+    }
+
+    /**
+     * Find the values most similar to a query.
+     *
+     * @param query The query, e.g. a partial name or phone number
+     * @param limit Maximum number of values to return
+     * @return A new list of at most limit values, best match first
+     */
+    public List<V> search(String query, int limit) {
+        Set<String> grams = grams(query);
+        Map<V, int[]> hits = new HashMap<V, int[]>();
+        for (String gram : grams) {
+            Set<V> values = postings.get(gram);
+            if (values != null) {
+                for (V value : values) {
+                    int[] count = hits.get(value);
+                    if (count == null) {
+                        hits.put(value, new int[] {1});
+                    } else {
+                        count[0]++;
+                    }
+                }
+            }
+        }
+
+        List<Match<V>> matches = new ArrayList<Match<V>>();
+        for (Map.Entry<V, int[]> hit : hits.entrySet()) {
+            int shared = hit.getValue()[0];
+            double match = (double) shared / grams.size();
+            if (match >= MIN_MATCH) {
+                double coverage = 2.0 * shared / (grams.size() + gramCounts.get(hit.getKey()));
+                matches.add(new Match<V>(hit.getKey(), match, coverage));
+            }
+        }
+        Collections.sort(matches);
+
+        List<V> found = new ArrayList<V>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            found.add(matches.get(i).value);
+        }
+        return found;
+    }
+
+    /**
+     * Cut a text into padded, case-folded trigrams. Characters that are not
+     * letters or digits separate words.
+     *
+     * @param text The text; null is treated as empty
+     * @return The distinct trigrams
+     */
+    public static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<String>();
+        if (text == null) {
+            return grams;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                word.append(Character.toLowerCase(text.charAt(i)));
+            } else if (word.length() > 0) {
+                String padded = "  " + word + " ";
+                for (int start = 0; start + N <= padded.length(); start++) {
+                    grams.add(padded.substring(start, start + N));
+                }
+                word.setLength(0);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * A candidate value with its scores, ordered best first.
+     */
+    private static final class Match<V> implements Comparable<Match<V>> {
+        final V value;
+        final double match;
+        final double coverage;
+
+        Match(V value, double match, double coverage) {
+            this.value = value;
+            this.match = match;
+            this.coverage = coverage;
+        }
+
+        @Override
+        public int compareTo(Match<V> other) {
+            int byMatch = Double.compare(other.match, match);
+            return byMatch != 0 ? byMatch : Double.compare(other.coverage, coverage);
+        }
+    }
+}
@@ -4,17 +4,35 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Class Package is an abstract entity class that represents a Package in the
  * shipping store. This class is expected to be inherited by subclasses
  * that specify the package type. No instance of this class can be created.
+ *
+ * A package whose mailing class is one of MAILING_CLASSES refers to the
+ * shared constant instead of its own copy of the string. Any other mailing
+ * class is kept as given.
  * 
  * @author Jamal Rasool and Zach Sotak
  */
 public abstract class Package implements Serializable {
 
+    private static final long serialVersionUID = 6020526305306322768L;
+
+    /**
+     * The mailing classes offered by the store.
+     */
+    public static final List<String> MAILING_CLASSES = Collections.unmodifiableList(
+            Arrays.asList("First-Class", "Priority", "Retail", "Ground", "Metro"));
+
     /**
      * The Package Tracking Number (PTN) of the vehicle.
      */
@@ -29,7 +47,7 @@ public abstract class Package implements Serializable {
      * The mailing class of the package.
      */
     protected String mailingClass;
-    
+
 
     /**
      * Default constructor used to initialize the class fields of the class.
@@ -53,7 +71,7 @@ public abstract class Package implements Serializable {
     protected Package(String ptn, String specification, String mailingClass) {
         this.ptn = ptn;
         this.specification = specification;
-        this.mailingClass = mailingClass;
+        this.mailingClass = shared(mailingClass);
     }
 
     /**
@@ -101,12 +119,73 @@ public abstract class Package implements Serializable {
      * @param mailingClass
      */
     public void setMailingClass(String mailingClass) {
-        this.mailingClass = mailingClass;
+        this.mailingClass = shared(mailingClass);
     }
     
     /**
-     * Abstract method, to be implemented by subclasses of class Package.
+     * Get the attributes of the package, in a formatted text fashion.
      * @return the text describing the package in a formatted manner.
      */
-    public abstract String getFormattedText();
+    public String getFormattedText() {
+        StringBuilder text = new StringBuilder(128);
+        try {
+            appendFormattedText(text);
+        } catch (IOException ex) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(ex);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Abstract method, to be implemented by subclasses of class Package.
+     * Writes the same text as getFormattedText() straight to out.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    public abstract void appendFormattedText(Appendable out) throws IOException;
+
+    /**
+     * Write the columns shared by every package type, followed by the
+     * separator of the OTHER DETAILS column.
+     * @param out Where to write
+     * @param type Name of the package type
+     * @throws IOException if out cannot be written to
+     */
+    protected void appendColumns(Appendable out, String type) throws IOException {
+        out.append("| ");
+        TextColumns.pad(out, type, 12).append(" | ");
+        TextColumns.pad(out, ptn, 12).append(" | ");
+        TextColumns.pad(out, specification, 13).append(" | ");
+        TextColumns.pad(out, getMailingClass(), 13).append(" | ");
+    }
+
+    /**
+     * Abstract method, to be implemented by subclasses of class Package.
+     * @return the attributes specific to the package type, e.g. "height=2, width=3".
+     */
+    public abstract String getDetails();
+
+    /**
+     * Get the free text of the package that can be searched for words.
+     * Subclasses with free-text fields of their own add them.
+     * @return the specification
+     */
+    public String getSearchableText() {
+        return specification;
+    }
+
+    /**
+     * Auxiliary private method that gets the MAILING_CLASSES constant equal
+     * to a mailing class, or the mailing class itself if there is none.
+     */
+    private static String shared(String mailingClass) {
+        int i = MAILING_CLASSES.indexOf(mailingClass);
+        return i < 0 ? mailingClass : MAILING_CLASSES.get(i);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        mailingClass = shared(mailingClass);
+    }
 }
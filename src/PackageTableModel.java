@@ -0,0 +1,51 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+/**
+ * PackageTableModel shows the inventory of a ShippingStore, one package per
+ * row.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class PackageTableModel extends StoreTableModel {
+
+    /**
+     * Constructor.
+     * @param store The store to show
+     */
+    public PackageTableModel(ShippingStore store) {
+        super(store, "PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS");
+    }
+
+    @Override
+    protected int getRowCount(StoreSnapshot snapshot) {
+        return snapshot.getPackages().size();
+    }
+
+    @Override
+    protected Object getValueAt(StoreSnapshot snapshot, int row, int column) {
+        Package p = snapshot.getPackages().get(row);
+        switch (column) {
+            case 0:
+                return p.getClass().getName();
+            case 1:
+                return p.getPtn();
+            case 2:
+                return p.getSpecification();
+            case 3:
+                return p.getMailingClass();
+            default:
+                return p.getDetails();
+        }
+    }
+
+    @Override
+    protected void fireChanges(StoreSnapshot previous, StoreSnapshot latest) {
+        if (previous.getPackages() != latest.getPackages()) {
+            fireTableDataChanged();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * PersistentVector is an immutable list that is changed by making a new
+ * version of it. The elements are kept in a tree of 32-wide arrays plus a
+ * tail array for the last elements, so a new version copies only the path
+ * to the changed element and shares everything else with the old one.
+ * Appending, replacing and removing the last element take O(log32 n) time;
+ * keeping an old version costs nothing.
+ *
+ * The List mutators inherited from AbstractList throw
+ * UnsupportedOperationException.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentVector<Object> EMPTY =
+            new PersistentVector<Object>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int count;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    /**
+     * Private constructor, use empty() or from() to obtain a vector.
+     */
+    private PersistentVector(int count, int shift, Object[] root, Object[] tail) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Get the empty vector.
+     * @return The empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Build a vector holding the given elements, in iteration order.
+     * @param elements The elements
+     * @return The new vector
+     */
+    public static <E> PersistentVector<E> from(Iterable<? extends E> elements) {
+        PersistentVector<E> vector = empty();
+        // Fill whole leaves and add them in one step each.
+        Object[] leaf = new Object[WIDTH];
+        int filled = 0;
+        for (E e : elements) {
+            leaf[filled++] = e;
+            if (filled == WIDTH) {
+                vector = vector.count == 0
+                        ? new PersistentVector<E>(WIDTH, BITS, EMPTY_NODE, leaf)
+                        : vector.withTailPushed(leaf, vector.count + WIDTH);
+                leaf = new Object[WIDTH];
+                filled = 0;
+            }
+        }
+        for (int i = 0; i < filled; i++) {
+            @SuppressWarnings("unchecked")
+            E e = (E) leaf[i];
+            vector = vector.withAppended(e);
+        }
+        return vector;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Get a new vector with the element added at the end.
+     * @param e The element
+     * @return The new vector
+     */
+    public PersistentVector<E> withAppended(E e) {
+        if (count - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = e;
+            return new PersistentVector<E>(count + 1, shift, root, newTail);
+        }
+        return withTailPushed(new Object[] {e}, count + 1);
+    }
+
+    /**
+     * Get a new vector with the element at the given index replaced.
+     * @param index Index of the element to replace
+     * @param e The new element
+     * @return The new vector
+     */
+    public PersistentVector<E> withElement(int index, E e) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = e;
+            return new PersistentVector<E>(count, shift, root, newTail);
+        }
+        return new PersistentVector<E>(count, shift, replace(shift, root, index, e), tail);
+    }
+
+    /**
+     * Get a new vector without its last element.
+     * @return The new vector
+     */
+    public PersistentVector<E> withoutLast() {
+        if (count == 0) {
+            throw new IllegalStateException("Vector is empty");
+        }
+        if (count == 1) {
+            return empty();
+        }
+        if (count - tailOffset() > 1) {
+            return new PersistentVector<E>(count - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+        // The tail becomes empty: take the last leaf out of the tree.
+        Object[] newTail = leafFor(count - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<E>(count - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Iterate leaf by leaf instead of walking the tree for every element.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= count) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    /**
+     * Auxiliary private method that moves the full tail into the tree and
+     * starts a new tail.
+     */
+    private PersistentVector<E> withTailPushed(Object[] newTail, int newCount) {
+        Object[] newRoot;
+        int newShift = shift;
+        if ((count >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<E>(newCount, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Auxiliary private method that returns the index of the first element
+     * kept in the tail.
+     */
+    private int tailOffset() {
+        return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Auxiliary private method that finds the leaf array holding an index.
+     */
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int slot = ((count - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+        if (level == BITS) {
+            node[slot] = leaf;
+        } else {
+            Object[] child = (Object[]) parent[slot];
+            node[slot] = child != null ? pushTail(level - BITS, child, leaf) : newPath(level - BITS, leaf);
+        }
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    private static Object[] replace(int level, Object[] parent, int index, Object e) {
+        Object[] node = parent.clone();
+        if (level == 0) {
+            node[index & MASK] = e;
+        } else {
+            int slot = (index >>> level) & MASK;
+            node[slot] = replace(level - BITS, (Object[]) parent[slot], index, e);
+        }
+        return node;
+    }
+
+    private Object[] popTail(int level, Object[] parent) {
+        int slot = ((count - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] child = popTail(level - BITS, (Object[]) parent[slot]);
+            if (child == null && slot == 0) {
+                return null;
+            }
+            Object[] node = parent.clone();
+            node[slot] = child;
+            return node;
+        } else if (slot == 0) {
+            return null;
+        }
+        Object[] node = parent.clone();
+        node[slot] = null;
+        return node;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PtnIndex keeps packages sorted by tracking number so they can be found by
+ * a partial one. All tracking numbers starting with a prefix are adjacent
+ * in the sorted map, so a prefix search is one O(log n) seek followed by a
+ * walk over the matches only.
+ *
+ * Wildcard patterns use '*' for any run of characters and '?' for exactly
+ * one. The literal part before the first wildcard is used as a prefix, so
+ * a pattern such as "ABC*9" only looks at tracking numbers starting with
+ * "ABC"; a pattern starting with a wildcard has to look at all of them.
+ *
+ * Tracking numbers are compared case-sensitively, like findPackage(). The
+ * index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class PtnIndex {
+
+    // Most tracking numbers are unique, so a single package is stored as
+    // is and only duplicates get a list.
+    private final TreeMap<String, Object> entries = new TreeMap<String, Object>();
+
+    /**
+     * Record a package under its tracking number.
+     * @param p The package
+     */
+    @SuppressWarnings("unchecked")
+    public void add(Package p) {
+        Object current = entries.get(p.getPtn());
+        if (current == null) {
+            entries.put(p.getPtn(), p);
+        } else if (current instanceof Package) {
+            List<Package> packages = new ArrayList<Package>(2);
+            packages.add((Package) current);
+            packages.add(p);
+            entries.put(p.getPtn(), packages);
+        } else {
+            ((List<Package>) current).add(p);
+        }
+    }
+
+    /**
+     * Remove a package recorded under its tracking number.
+     * @param p The package
+     * @return true if the package was found
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(Package p) {
+        Object current = entries.get(p.getPtn());
+        if (current == p) {
+            entries.remove(p.getPtn());
+            return true;
+        }
+        if (!(current instanceof List)) {
+            return false;
+        }
+        List<Package> packages = (List<Package>) current;
+        for (int i = 0; i < packages.size(); i++) {
+            if (packages.get(i) == p) {
+                packages.remove(i);
+                if (packages.size() == 1) {
+                    entries.put(p.getPtn(), packages.get(0));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a package with exactly the given tracking number.
+     * @param ptn The tracking number, taken literally
+     * @return The first package added with it, or null
+     */
+    @SuppressWarnings("unchecked")
+    public Package first(String ptn) {
+        Object entry = entries.get(ptn);
+        if (entry instanceof List) {
+            return ((List<Package>) entry).get(0);
+        }
+        return (Package) entry;
+    }
+
+    /**
+     * Find the packages whose tracking number starts with a prefix, in
+     * tracking number order.
+     *
+     * @param prefix The prefix; the empty string matches every package
+     * @param limit Maximum number of packages to return
+     * @return A new list of at most limit packages
+     */
+    public List<Package> withPrefix(String prefix, int limit) {
+        return matching(prefix, null, limit);
+    }
+
+    /**
+     * Find the packages whose tracking number matches a wildcard pattern,
+     * in tracking number order.
+     *
+     * @param pattern The pattern, e.g. "AB*" or "A?C12*"
+     * @param limit Maximum number of packages to return
+     * @return A new list of at most limit packages
+     */
+    public List<Package> matchingPattern(String pattern, int limit) {
+        int wildcard = firstWildcard(pattern);
+        if (wildcard < 0) {
+            List<Package> found = new ArrayList<Package>(1);
+            addAll(found, entries.get(pattern), limit);
+            return found;
+        }
+        return matching(pattern.substring(0, wildcard), pattern, limit);
+    }
+
+    /**
+     * Returns true if a search text contains a wildcard.
+     * @param text The search text
+     * @return true if it contains '*' or '?'
+     */
+    public static boolean isPattern(String text) {
+        return firstWildcard(text) >= 0;
+    }
+
+    /**
+     * Auxiliary private method that walks the tracking numbers starting
+     * with a prefix, keeping those that match the pattern, if any.
+     */
+    private List<Package> matching(String prefix, String pattern, int limit) {
+        List<Package> found = new ArrayList<Package>();
+        for (Map.Entry<String, Object> entry : entries.tailMap(prefix, true).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (pattern == null || matches(pattern, entry.getKey())) {
+                addAll(found, entry.getValue(), limit);
+            }
+        }
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addAll(List<Package> found, Object entry, int limit) {
+        if (entry instanceof Package) {
+            if (found.size() < limit) {
+                found.add((Package) entry);
+            }
+        } else if (entry != null) {
+            for (Package p : (List<Package>) entry) {
+                if (found.size() >= limit) {
+                    return;
+                }
+                found.add(p);
+            }
+        }
+    }
+
+    private static int firstWildcard(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Auxiliary private method that matches a whole text against a wildcard
+     * pattern. On a mismatch after a '*' the '*' is made to cover one more
+     * character, which keeps the match linear for practical patterns.
+     */
+    private static boolean matches(String pattern, String text) {
+        int p = 0;
+        int t = 0;
+        int star = -1;
+        int starText = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starText = t;
+            } else if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++starText;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,502 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * RecordCodec is the compact binary format used to store packages, users and
+ * transactions, both in the database file and in the journal. Every record
+ * starts with a one-byte type tag. Integers are written as variable-length
+ * zig-zag numbers, strings as a length followed by their UTF-8 bytes, and
+ * dates as epoch milliseconds.
+ *
+ * A database file holds a header (magic number, format version, user ID
+ * counter and journal LSN), the dictionaries of the mailing classes and
+ * drum materials, the three tables as a count followed by their records,
+ * and a CRC32 of everything before it. In the database file, packages
+ * refer to their mailing class and material by its position in the
+ * dictionary; journal records, which stand alone, hold the strings.
+ * Version 1 files have no dictionaries and are still read.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class RecordCodec {
+
+    public static final int MAGIC = 0x53534442; // "SSDB"
+    public static final short VERSION = 2;
+
+    // Last version that wrote mailing classes and materials as strings.
+    private static final short VERSION_WITHOUT_DICTIONARIES = 1;
+
+    private static final byte TAG_ENVELOPE = 1;
+    private static final byte TAG_BOX = 2;
+    private static final byte TAG_CRATE = 3;
+    private static final byte TAG_DRUM = 4;
+    private static final byte TAG_CUSTOMER = 5;
+    private static final byte TAG_EMPLOYEE = 6;
+    private static final byte TAG_TRANSACTION = 7;
+
+    private static final int HAS_SHIPPING_DATE = 1;
+    private static final int HAS_DELIVERY_DATE = 2;
+
+    /**
+     * No instances, all methods are static.
+     */
+    private RecordCodec() {
+    }
+
+    /**
+     * Write a complete database image.
+     *
+     * @param out Destination stream, not closed by this method
+     * @param image The image to write
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeDatabase(OutputStream out, StoreImage image) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, crc));
+
+        body.writeInt(MAGIC);
+        body.writeShort(VERSION);
+        writeVarInt(body, image.userIdCounter);
+        writeVarLong(body, image.lsn);
+
+        ValueDictionary mailingClasses = new ValueDictionary();
+        ValueDictionary materials = new ValueDictionary();
+        for (Package p : image.packages) {
+            mailingClasses.encode(orEmpty(p.getMailingClass()));
+            if (p instanceof Drum) {
+                materials.encode(orEmpty(((Drum) p).getMaterial()));
+            }
+        }
+        writeDictionary(body, mailingClasses);
+        writeDictionary(body, materials);
+
+        writeVarInt(body, image.packages.size());
+        for (Package p : image.packages) {
+            writePackage(body, p, mailingClasses, materials);
+        }
+        writeVarInt(body, image.users.size());
+        for (User u : image.users) {
+            writeUser(body, u);
+        }
+        writeVarInt(body, image.transactions.size());
+        for (Transaction t : image.transactions) {
+            writeTransaction(body, t);
+        }
+        body.flush();
+
+        DataOutputStream trailer = new DataOutputStream(out);
+        trailer.writeInt((int) crc.getValue());
+        trailer.flush();
+    }
+
+    /**
+     * Read a complete database image and verify its checksum.
+     *
+     * @param in Source stream, not closed by this method
+     * @return The image read.
+     * @throws IOException if the stream cannot be read, is not a database
+     * file, or is damaged
+     */
+    public static StoreImage readDatabase(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream body = new DataInputStream(new CheckedInputStream(in, crc));
+
+        if (body.readInt() != MAGIC) {
+            throw new IOException("Not a ShippingStore database file");
+        }
+        short version = body.readShort();
+        if (version != VERSION && version != VERSION_WITHOUT_DICTIONARIES) {
+            throw new IOException("Unsupported database format version " + version);
+        }
+        int userIdCounter = readVarInt(body);
+        long lsn = readVarLong(body);
+
+        String[] mailingClasses = null;
+        String[] materials = null;
+        if (version != VERSION_WITHOUT_DICTIONARIES) {
+            mailingClasses = readDictionary(body);
+            materials = readDictionary(body);
+        }
+
+        int count = readCount(body);
+        List<Package> packages = new ArrayList<Package>(count);
+        for (int i = 0; i < count; i++) {
+            packages.add(readPackage(body, mailingClasses, materials));
+        }
+        count = readCount(body);
+        List<User> users = new ArrayList<User>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(readUser(body));
+        }
+        count = readCount(body);
+        List<Transaction> transactions = new ArrayList<Transaction>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(readTransaction(body));
+        }
+
+        long expected = crc.getValue();
+        if ((new DataInputStream(in).readInt() & 0xFFFFFFFFL) != expected) {
+            throw new IOException("Database file is damaged (checksum mismatch)");
+        }
+        return new StoreImage(packages, users, transactions, userIdCounter, lsn);
+    }
+
+    /**
+     * Write one package, tagged with its concrete type.
+     *
+     * @param out Destination
+     * @param p The package
+     * @throws IOException if the package cannot be written
+     */
+    public static void writePackage(DataOutput out, Package p) throws IOException {
+        writePackage(out, p, null, null);
+    }
+
+    /**
+     * Auxiliary private method that writes one package, with its mailing
+     * class and material as positions in the given dictionaries, or as
+     * strings if they are null.
+     */
+    private static void writePackage(DataOutput out, Package p, ValueDictionary mailingClasses,
+                                     ValueDictionary materials) throws IOException {
+        if (p instanceof Envelope) {
+            out.writeByte(TAG_ENVELOPE);
+        } else if (p instanceof Box) {
+            out.writeByte(TAG_BOX);
+        } else if (p instanceof Crate) {
+            out.writeByte(TAG_CRATE);
+        } else if (p instanceof Drum) {
+            out.writeByte(TAG_DRUM);
+        } else {
+            throw new IOException("Unknown package type " + p.getClass().getName());
+        }
+        writeString(out, p.getPtn());
+        writeString(out, p.getSpecification());
+        writeValue(out, p.getMailingClass(), mailingClasses);
+
+        if (p instanceof Envelope) {
+            writeVarInt(out, ((Envelope) p).getHeight());
+            writeVarInt(out, ((Envelope) p).getWidth());
+        } else if (p instanceof Box) {
+            writeVarInt(out, ((Box) p).getDimension());
+            writeVarInt(out, ((Box) p).getVolume());
+        } else if (p instanceof Crate) {
+            out.writeFloat(((Crate) p).getLoadWeight());
+            writeString(out, ((Crate) p).getContent());
+        } else {
+            writeValue(out, ((Drum) p).getMaterial(), materials);
+            out.writeFloat(((Drum) p).getDiameter());
+        }
+    }
+
+    /**
+     * Read one package written by writePackage.
+     *
+     * @param in Source
+     * @return The package read.
+     * @throws IOException if the record cannot be read or has an unknown tag
+     */
+    public static Package readPackage(DataInput in) throws IOException {
+        return readPackage(in, null, null);
+    }
+
+    /**
+     * Auxiliary private method that reads one package written with the
+     * given dictionaries, or with strings if they are null.
+     */
+    private static Package readPackage(DataInput in, String[] mailingClasses, String[] materials)
+            throws IOException {
+        byte tag = in.readByte();
+        String ptn = readString(in);
+        String specification = readString(in);
+        String mailingClass = readValue(in, mailingClasses);
+
+        switch (tag) {
+            case TAG_ENVELOPE:
+                return new Envelope(ptn, specification, mailingClass, readVarInt(in), readVarInt(in));
+            case TAG_BOX:
+                return new Box(ptn, specification, mailingClass, readVarInt(in), readVarInt(in));
+            case TAG_CRATE:
+                return new Crate(ptn, specification, mailingClass, in.readFloat(), readString(in));
+            case TAG_DRUM:
+                return new Drum(ptn, specification, mailingClass, readValue(in, materials), in.readFloat());
+            default:
+                throw new IOException("Unknown package tag " + tag);
+        }
+    }
+
+    /**
+     * Write one user, tagged with its concrete type.
+     *
+     * @param out Destination
+     * @param u The user
+     * @throws IOException if the user cannot be written
+     */
+    public static void writeUser(DataOutput out, User u) throws IOException {
+        if (u instanceof Customer) {
+            Customer c = (Customer) u;
+            out.writeByte(TAG_CUSTOMER);
+            writeVarInt(out, c.getId());
+            writeString(out, c.getFirstName());
+            writeString(out, c.getLastName());
+            writeString(out, c.getPhoneNumber());
+            writeString(out, c.getAddress());
+        } else if (u instanceof Employee) {
+            Employee e = (Employee) u;
+            out.writeByte(TAG_EMPLOYEE);
+            writeVarInt(out, e.getId());
+            writeString(out, e.getFirstName());
+            writeString(out, e.getLastName());
+            writeVarInt(out, e.getSocialSecurityNumber());
+            out.writeFloat(e.getMonthlySalary());
+            writeVarInt(out, e.getBankAccountNumber());
+        } else {
+            throw new IOException("Unknown user type " + u.getClass().getName());
+        }
+    }
+
+    /**
+     * Read one user written by writeUser.
+     *
+     * @param in Source
+     * @return The user read.
+     * @throws IOException if the record cannot be read or has an unknown tag
+     */
+    public static User readUser(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        int id = readVarInt(in);
+        String firstName = readString(in);
+        String lastName = readString(in);
+
+        switch (tag) {
+            case TAG_CUSTOMER:
+                return new Customer(id, firstName, lastName, readString(in), readString(in));
+            case TAG_EMPLOYEE:
+                return new Employee(id, firstName, lastName, readVarInt(in), in.readFloat(), readVarInt(in));
+            default:
+                throw new IOException("Unknown user tag " + tag);
+        }
+    }
+
+    /**
+     * Write one transaction. Dates are stored as epoch milliseconds.
+     *
+     * @param out Destination
+     * @param t The transaction
+     * @throws IOException if the transaction cannot be written
+     */
+    public static void writeTransaction(DataOutput out, Transaction t) throws IOException {
+        Date shipped = t.getShippingDate();
+        Date delivered = t.getDeliveryDate();
+
+        out.writeByte(TAG_TRANSACTION);
+        out.writeByte((shipped != null ? HAS_SHIPPING_DATE : 0) | (delivered != null ? HAS_DELIVERY_DATE : 0));
+        writeVarInt(out, t.getCustomerId());
+        writeVarInt(out, t.getEmployeeId());
+        writeString(out, t.getPtn());
+        if (shipped != null) {
+            writeVarLong(out, shipped.getTime());
+        }
+        if (delivered != null) {
+            writeVarLong(out, delivered.getTime());
+        }
+        out.writeFloat(t.getPrice());
+    }
+
+    /**
+     * Read one transaction written by writeTransaction.
+     *
+     * @param in Source
+     * @return The transaction read.
+     * @throws IOException if the record cannot be read or has an unknown tag
+     */
+    public static Transaction readTransaction(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        if (tag != TAG_TRANSACTION) {
+            throw new IOException("Unknown transaction tag " + tag);
+        }
+        int flags = in.readByte();
+        int customerId = readVarInt(in);
+        int employeeId = readVarInt(in);
+        String ptn = readString(in);
+        Date shipped = (flags & HAS_SHIPPING_DATE) != 0 ? new Date(readVarLong(in)) : null;
+        Date delivered = (flags & HAS_DELIVERY_DATE) != 0 ? new Date(readVarLong(in)) : null;
+        float price = in.readFloat();
+        return new Transaction(customerId, employeeId, ptn, shipped, delivered, price);
+    }
+
+    /**
+     * Write a string as its UTF-8 length followed by its UTF-8 bytes. A null
+     * string is written as an empty one.
+     *
+     * @param out Destination
+     * @param s The string
+     * @throws IOException if the string cannot be written
+     */
+    public static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null || s.isEmpty()) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by writeString.
+     *
+     * @param in Source
+     * @return The string read.
+     * @throws IOException if the string cannot be read
+     */
+    public static String readString(DataInput in) throws IOException {
+        int length = readCount(in);
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write an int as a zig-zag variable-length number, one to five bytes.
+     *
+     * @param out Destination
+     * @param value The value
+     * @throws IOException if the value cannot be written
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    /**
+     * Read an int written by writeVarInt.
+     *
+     * @param in Source
+     * @return The value read.
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length int");
+    }
+
+    /**
+     * Write a long as a zig-zag variable-length number, one to ten bytes.
+     *
+     * @param out Destination
+     * @param value The value
+     * @throws IOException if the value cannot be written
+     */
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * Read a long written by writeVarLong.
+     *
+     * @param in Source
+     * @return The value read.
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    public static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length long");
+    }
+
+    /**
+     * Auxiliary private methods that write and read a dictionary as its size
+     * followed by its values in code order.
+     */
+    private static void writeDictionary(DataOutput out, ValueDictionary dictionary) throws IOException {
+        writeVarInt(out, dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            writeString(out, dictionary.decode(code));
+        }
+    }
+
+    private static String[] readDictionary(DataInput in) throws IOException {
+        String[] values = new String[readCount(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    /**
+     * Auxiliary private methods that write and read a value either as its
+     * position in a dictionary or, without one, as a string.
+     */
+    private static void writeValue(DataOutput out, String value, ValueDictionary dictionary) throws IOException {
+        if (dictionary == null) {
+            writeString(out, value);
+        } else {
+            writeVarInt(out, dictionary.lookup(orEmpty(value)));
+        }
+    }
+
+    private static String readValue(DataInput in, String[] dictionary) throws IOException {
+        if (dictionary == null) {
+            return readString(in);
+        }
+        int code = readCount(in);
+        if (code >= dictionary.length) {
+            throw new IOException("Dictionary code " + code + " out of range");
+        }
+        return dictionary[code];
+    }
+
+    private static String orEmpty(String s) {
+        // Like writeString, which writes null as the empty string.
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Auxiliary private method that reads a non-negative count or length.
+     */
+    private static int readCount(DataInput in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0) {
+            throw new IOException("Negative count " + count);
+        }
+        return count;
+    }
+}
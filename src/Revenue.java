@@ -0,0 +1,85 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+/**
+ * Revenue summarizes the prices of a group of transactions: how many there
+ * are, their total, and the lowest and highest price. Instances are
+ * immutable copies of the aggregates kept by RevenueIndex.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public final class Revenue {
+
+    /**
+     * Revenue of no transactions.
+     */
+    public static final Revenue NONE = new Revenue(0, 0, Float.NaN, Float.NaN);
+
+    private final long count;
+    private final double total;
+    private final float min;
+    private final float max;
+
+    /**
+     * Constructor initializes a summary with the provided values.
+     * @param count Number of transactions
+     * @param total Sum of their prices
+     * @param min Lowest price, NaN if there are no transactions
+     * @param max Highest price, NaN if there are no transactions
+     */
+    public Revenue(long count, double total, float min, float max) {
+        this.count = count;
+        this.total = total;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Get the number of transactions.
+     * @return count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the sum of the prices.
+     * @return total
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the lowest price.
+     * @return min, or NaN if there are no transactions
+     */
+    public float getMin() {
+        return min;
+    }
+
+    /**
+     * Get the highest price.
+     * @return max, or NaN if there are no transactions
+     */
+    public float getMax() {
+        return max;
+    }
+
+    /**
+     * Get the average price.
+     * @return total / count, or NaN if there are no transactions
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : total / count;
+    }
+
+    @Override
+    public String toString() {
+        return "Revenue{" + "count=" + count + ", total=" + total
+                + ", min=" + min + ", max=" + max + '}';
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * RevenueIndex keeps running revenue aggregates over the transactions: the
+ * count, total, lowest and highest price of all of them, of each delivery
+ * day, of each employee and of each customer. Every transaction updates
+ * four aggregates in constant time, so reading revenue never rescans the
+ * transaction history.
+ *
+ * Days start at local midnight of the default time zone at the time the
+ * transaction is added, like TimeIndex.Period.DAY. Transactions without a
+ * delivery date count toward every aggregate except the daily ones.
+ *
+ * The index also keeps leaderboards of the LEADERBOARD_SIZE customers with
+ * the highest spend and employees with the most transactions, updated with
+ * the aggregates, so leaderboard queries do not sort anything.
+ *
+ * The index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class RevenueIndex {
+
+    public static final int LEADERBOARD_SIZE = 20;
+
+    private final Sum total = new Sum();
+    private final TreeMap<Long, Sum> days = new TreeMap<Long, Sum>();
+    private final Map<Integer, Sum> employees = new HashMap<Integer, Sum>();
+    private final Map<Integer, Sum> customers = new HashMap<Integer, Sum>();
+    private final Leaderboard topCustomers = new Leaderboard(LEADERBOARD_SIZE);
+    private final Leaderboard topEmployees = new Leaderboard(LEADERBOARD_SIZE);
+
+    // The last day updated; transactions mostly arrive in date order, so
+    // this saves the calendar arithmetic and the map lookup.
+    private long dayStart = 1;
+    private long dayEnd = 0;
+    private Sum day;
+
+    /**
+     * Record a transaction.
+     *
+     * @param customerId The customer ID
+     * @param employeeId The employee ID
+     * @param deliveryTime Delivery date in epoch milliseconds, or
+     * TransactionTable.NO_DATE
+     * @param price The price
+     */
+    public void add(int customerId, int employeeId, long deliveryTime, float price) {
+        total.add(price);
+        Sum employee = sumOf(employees, employeeId);
+        employee.add(price);
+        topEmployees.update(employeeId, employee.count);
+        Sum customer = sumOf(customers, customerId);
+        customer.add(price);
+        topCustomers.update(customerId, customer.total);
+        if (topCustomers.isStale()) {
+            // A negative price lowered a leader's spend.
+            rebuild(topCustomers, customers);
+        }
+        if (deliveryTime != TransactionTable.NO_DATE) {
+            if (deliveryTime < dayStart || deliveryTime >= dayEnd) {
+                dayStart = TimeIndex.Period.DAY.floor(deliveryTime);
+                dayEnd = TimeIndex.Period.DAY.next(dayStart);
+                day = days.get(dayStart);
+                if (day == null) {
+                    day = new Sum();
+                    days.put(dayStart, day);
+                }
+            }
+            day.add(price);
+        }
+    }
+
+    /**
+     * Get the revenue of all transactions.
+     * @return The revenue
+     */
+    public Revenue getTotal() {
+        return total.toRevenue();
+    }
+
+    /**
+     * Get the revenue of the transactions handled by an employee.
+     * @param employeeId The employee ID
+     * @return The revenue; Revenue.NONE if there are none
+     */
+    public Revenue getEmployee(int employeeId) {
+        Sum sum = employees.get(employeeId);
+        return sum == null ? Revenue.NONE : sum.toRevenue();
+    }
+
+    /**
+     * Get the revenue of the transactions of a customer.
+     * @param customerId The customer ID
+     * @return The revenue; Revenue.NONE if there are none
+     */
+    public Revenue getCustomer(int customerId) {
+        Sum sum = customers.get(customerId);
+        return sum == null ? Revenue.NONE : sum.toRevenue();
+    }
+
+    /**
+     * Get the revenue of each day in a time range that had deliveries.
+     *
+     * @param from Start of the range; the whole day holding it is included
+     * @param to End of the range, exclusive
+     * @return A new map from the start of each day to its revenue, in time
+     * order
+     */
+    public SortedMap<Date, Revenue> getDays(long from, long to) {
+        SortedMap<Date, Revenue> found = new TreeMap<Date, Revenue>();
+        long start = TimeIndex.Period.DAY.floor(from);
+        if (start < to) {
+            for (Map.Entry<Long, Sum> entry : days.subMap(start, to).entrySet()) {
+                found.put(new Date(entry.getKey()), entry.getValue().toRevenue());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the revenue of every employee with transactions.
+     * @return A new map from employee ID to revenue
+     */
+    public Map<Integer, Revenue> getEmployees() {
+        return copy(employees);
+    }
+
+    /**
+     * Get the revenue of every customer with transactions.
+     * @return A new map from customer ID to revenue
+     */
+    public Map<Integer, Revenue> getCustomers() {
+        return copy(customers);
+    }
+
+    /**
+     * Get the customers with the highest spend.
+     * @param limit Maximum number of customers, at most LEADERBOARD_SIZE
+     * @return A new map from customer ID to revenue, highest total first
+     */
+    public Map<Integer, Revenue> getTopCustomers(int limit) {
+        return leaders(topCustomers, customers, limit);
+    }
+
+    /**
+     * Get the employees with the most transactions.
+     * @param limit Maximum number of employees, at most LEADERBOARD_SIZE
+     * @return A new map from employee ID to revenue, most transactions first
+     */
+    public Map<Integer, Revenue> getTopEmployees(int limit) {
+        return leaders(topEmployees, employees, limit);
+    }
+
+    private static Map<Integer, Revenue> leaders(Leaderboard board, Map<Integer, Sum> sums, int limit) {
+        Map<Integer, Revenue> found = new LinkedHashMap<Integer, Revenue>();
+        for (int id : board.top(limit)) {
+            found.put(id, sums.get(id).toRevenue());
+        }
+        return found;
+    }
+
+    private static void rebuild(Leaderboard board, Map<Integer, Sum> sums) {
+        board.clear();
+        for (Map.Entry<Integer, Sum> entry : sums.entrySet()) {
+            board.update(entry.getKey(), entry.getValue().total);
+        }
+    }
+
+    private static Sum sumOf(Map<Integer, Sum> sums, int id) {
+        Sum sum = sums.get(id);
+        if (sum == null) {
+            sum = new Sum();
+            sums.put(id, sum);
+        }
+        return sum;
+    }
+
+    private static Map<Integer, Revenue> copy(Map<Integer, Sum> sums) {
+        Map<Integer, Revenue> found = new HashMap<Integer, Revenue>(sums.size() * 2);
+        for (Map.Entry<Integer, Sum> entry : sums.entrySet()) {
+            found.put(entry.getKey(), entry.getValue().toRevenue());
+        }
+        return found;
+    }
+
+    /**
+     * A running aggregate of prices.
+     */
+    private static final class Sum {
+        long count;
+        double total;
+        float min = Float.NaN;
+        float max = Float.NaN;
+
+        void add(float price) {
+            if (count == 0 || price < min) {
+                min = price;
+            }
+            if (count == 0 || price > max) {
+                max = price;
+            }
+            count++;
+            total += price;
+        }
+
+        Revenue toRevenue() {
+            return count == 0 ? Revenue.NONE : new Revenue(count, total, min, max);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SecondaryIndex maps a non-unique key, such as a mailing class, to the
+ * values that have it. Values are kept in insertion order and compared with
+ * equals(), which for the entity classes means identity, so two packages
+ * with equal fields are still indexed separately. Adding and removing a
+ * value and counting the values of a key take constant time; a lookup takes
+ * time proportional to the number of values found.
+ *
+ * The index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class SecondaryIndex<K, V> {
+
+    private final Map<K, Set<V>> entries = new HashMap<K, Set<V>>();
+
+    /**
+     * Record a value under a key.
+     * @param key The key; may be null
+     * @param value The value
+     */
+    public void add(K key, V value) {
+        Set<V> values = entries.get(key);
+        if (values == null) {
+            values = new LinkedHashSet<V>();
+            entries.put(key, values);
+        }
+        values.add(value);
+    }
+
+    /**
+     * Remove a value recorded under a key.
+     * @param key The key the value was added with
+     * @param value The value
+     * @return true if the value was found
+     */
+    public boolean remove(K key, V value) {
+        Set<V> values = entries.get(key);
+        if (values == null || !values.remove(value)) {
+            return false;
+        }
+        if (values.isEmpty()) {
+            entries.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Get the values recorded under a key.
+     * @param key The key
+     * @return A new list of the values, in the order they were added
+     */
+    public List<V> get(K key) {
+        Set<V> values = entries.get(key);
+        if (values == null) {
+            return new ArrayList<V>(0);
+        }
+        return new ArrayList<V>(values);
+    }
+
+    /**
+     * Count the values recorded under a key.
+     * @param key The key
+     * @return Number of values
+     */
+    public int count(K key) {
+        Set<V> values = entries.get(key);
+        return values == null ? 0 : values.size();
+    }
+
+    /**
+     * Get the keys that have at least one value.
+     * @return A read-only copy of the keys
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(new LinkedHashSet<K>(entries.keySet()));
+    }
+}
@@ -1,5 +1,12 @@
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class represents a shipping store software, providing some basic
@@ -9,21 +16,99 @@ import java.util.*;
  */
 public class ShippingStore {
 
-    private final List<Package> packageList;
-    private final List<User> users;
-    private final List<Transaction> transactions;
+    /**
+     * File holding the last saved image of the database, in RecordCodec
+     * format.
+     */
+    public static final String DATABASE_FILE = "ShippingStore.db";
+
+    /**
+     * File written by older versions with Java serialization. It is converted
+     * to DATABASE_FILE the first time it is found alone.
+     */
+    public static final String LEGACY_DATABASE_FILE = "ShippingStore.ser";
+
+    /**
+     * File holding the mutations applied since the last saved image.
+     */
+    public static final String JOURNAL_FILE = "ShippingStore.journal";
 
-    protected int userIdCounter = 1;
+    /**
+     * Base name of the memory-mapped transaction history segments.
+     */
+    public static final String TRANSACTION_FILE = "ShippingStore.tx";
+
+    /**
+     * System property used to choose the journal sync policy, one of the
+     * Journal.SyncPolicy names.
+     */
+    public static final String SYNC_POLICY_PROPERTY = "shippingstore.journal.sync";
+
+    // Most problems listed in the message of a rejected delivery batch.
+    private static final int MAX_REPORTED_PROBLEMS = 20;
+
+    // Report headers, formatted once instead of for every report.
+    private static final String PACKAGE_RULE = "---------------------------------------------------"
+            + "----------------------------------------------------------\n";
+    private static final String PACKAGE_HEADER = String.format(
+            "| %12s | %12s | %13s | %13s | %22s                       |%n",
+            "PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS");
+    private static final String USER_RULE = "---------------------------------------------------"
+            + "-----------------------------------------------"
+            + "---------------\n";
+    private static final String USER_HEADER = String.format(
+            "| %10s | %9s | %12s | %12s | %35s                    | %n",
+            "USER TYPE", "USER ID", "FIRST NAME", "LAST NAME", "OTHER DETAILS");
+
+    // Not final: a lazily loaded store replaces them once its image is read.
+    // The lists are persistent vectors; every change makes a new version.
+    private PersistentVector<Package> packageList;
+    private Map<String, Integer> packageIndex;
+    private SecondaryIndex<String, Package> mailingClassIndex;
+    private SecondaryIndex<Class<? extends Package>, Package> packageTypeIndex;
+    private PtnIndex ptnPrefixIndex;
+    private TextIndex<Package> packageTextIndex;
+    private PersistentVector<User> users;
+    private IntUserMap userIndex;
+    private NGramIndex<User> userTextIndex;
+    private TransactionTable transactions;
+    private IntPostingIndex customerTransactions;
+    private IntPostingIndex employeeTransactions;
+    private TimeIndex shippingTimes;
+    private TimeIndex deliveryTimes;
+    private RevenueIndex revenue;
+    private int indexedTransactions;
+
+    // Latest published versions of the tables, for readers that must not
+    // lock. Writers replace only their own table's part.
+    private final AtomicReference<StoreSnapshot> snapshot = new AtomicReference<StoreSnapshot>();
+
+    // Next user ID for addCustomer/addEmployee; every user ID in the store
+    // is observed by it, so new IDs never collide with existing ones.
+    private final IdAllocator userIds = new IdAllocator(1);
+
+    private Journal journal;
+    private long snapshotLsn;
+    // Set if the database files could not be read. The store is then empty
+    // and must never be saved over them.
+    private boolean readFailed;
+    private volatile Checkpointer checkpointer;
+    private final Object checkpointLock = new Object();
+
+    // One lock per table, so readers run in parallel and a write to one
+    // table does not wait for the others. When several are held they are
+    // taken in this order.
+    private final ReentrantReadWriteLock packageLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock userLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock();
+    private volatile Future<?> loading;
 
     /**
      * Default constructor. Initializes the inventory, users, and transactions
      * tables.
      */
     public ShippingStore() {
-        this.packageList = new ArrayList<Package>();
-        this.users = new ArrayList<User>();
-        this.transactions = new ArrayList<Transaction>();
-
+        setTables(new ArrayList<Package>(), new ArrayList<User>(), new ColumnarTransactionTable());
     }
 
 
@@ -36,19 +121,87 @@ public class ShippingStore {
      * @param transactions List of Transactions
      */
     public ShippingStore(List<Package> packageList, List<User> users, List<Transaction> transactions) {
-        this.packageList = packageList;
-        this.users = users;
+        setTables(packageList, users, new ColumnarTransactionTable(transactions));
+    }
+
+    /**
+     * Auxiliary private method that installs the tables and builds their
+     * indexes.
+     *
+     * @param packageList List of packages
+     * @param users List of Users
+     * @param transactions Table of Transactions
+     */
+    private void setTables(List<Package> packageList, List<User> users, TransactionTable transactions) {
+        this.packageList = PersistentVector.from(packageList);
+        this.packageIndex = new HashMap<String, Integer>(packageList.size() * 2);
+        this.mailingClassIndex = new SecondaryIndex<String, Package>();
+        this.packageTypeIndex = new SecondaryIndex<Class<? extends Package>, Package>();
+        this.ptnPrefixIndex = new PtnIndex();
+        this.packageTextIndex = new TextIndex<Package>();
+        this.users = PersistentVector.from(users);
+        this.userIndex = new IntUserMap(users.size());
+        this.userTextIndex = new NGramIndex<User>();
         this.transactions = transactions;
+        this.customerTransactions = new IntPostingIndex();
+        this.employeeTransactions = new IntPostingIndex();
+        this.shippingTimes = new TimeIndex();
+        this.deliveryTimes = new TimeIndex();
+        this.revenue = new RevenueIndex();
+        this.indexedTransactions = 0;
+        indexTransactions();
+
+        for (int i = 0; i < packageList.size(); i++) {
+            packageIndex.putIfAbsent(packageList.get(i).getPtn(), i);
+            indexPackageAttributes(packageList.get(i));
+        }
+        for (int i = 0; i < users.size(); i++) {
+            userIndex.put(users.get(i).getId(), users.get(i), i);
+            userIds.observe(users.get(i).getId());
+            userTextIndex.add(users.get(i), users.get(i).getSearchableText());
+        }
+        long version = snapshot.get() == null ? 0 : snapshot.get().getVersion() + 1;
+        snapshot.set(new StoreSnapshot(version, this.packageList, this.users, transactions, transactions.size()));
+    }
+
+    /**
+     * Get the latest snapshot of the store. This is a single field read; the
+     * snapshot never changes, so it can be iterated at leisure without
+     * blocking writers.
+     * @return The current snapshot
+     */
+    public StoreSnapshot snapshot() {
+        ensureLoaded();
+        return snapshot.get();
+    }
+
+    /**
+     * Get the package list of the current snapshot.
+     * @return Returns a read-only list of packages that does not change
+     */
+    public List<Package> getPackageList() {
+        return snapshot().getPackages();
+    }
+
+    /**
+     * Get the users list of the current snapshot.
+     * @return Returns a read-only list of users that does not change
+     */
+    public List<User> getUserList() {
+        return snapshot().getUsers();
     }
 
     /**
-     * Get Package List Size is designed to return the size of the list.
-     * @return Returns the array size of the package list
+     * Get an analytics view of the transactions of the current snapshot.
+     * Its queries scan the transactions in parallel and never block writers.
+     * @return The analytics view
      */
+    public TransactionAnalytics analytics() {
+        return new TransactionAnalytics(snapshot());
+    }
 
-    public List<Package> getPackageList() { return packageList;}
-    public List<User> getUserList() { return users;}
-    public List<Transaction> getTransactionList() { return transactions;}
+    public List<Transaction> getTransactionList() { return snapshot().getTransactions();}
+    public TransactionTable getTransactionTable() { ensureLoaded(); return transactions;}
 
     /**
      * Auxiliary method used to find a package in the database, given its
@@ -58,12 +211,17 @@ public class ShippingStore {
      * @return The package found, or otherwise null.
      */
     public Package findPackage(String ptn) {
-        for (Package p : packageList) {
-            if (p.getPtn().equals(ptn)) {
-                return p;
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            Integer position = packageIndex.get(ptn);
+            if (position == null) {
+                return null;
             }
+            return packageList.get(position);
+        } finally {
+            packageLock.readLock().unlock();
         }
-        return null;
     }
 
 
@@ -73,9 +231,215 @@ public class ShippingStore {
      * @return
      */
     public boolean packageExists(String ptn) {
-        if (findPackage(ptn) != null)
-            return true;
-        return false;
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return packageIndex.containsKey(ptn);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Auxiliary private method that appends a package to the inventory and
+     * records its position in the tracking number index. If a package with
+     * the same tracking number is already indexed, the first one is kept, so
+     * lookups behave like the original front-to-back scan. The duplicate is
+     * still in the other indexes, and unindexPackage() points the tracking
+     * number at it once the indexed package is removed.
+     *
+     * @param p The package to add
+     */
+    private void indexPackage(Package p) {
+        packageIndex.putIfAbsent(p.getPtn(), packageList.size());
+        indexPackageAttributes(p);
+        packageList = packageList.withAppended(p);
+        publishPackages();
+    }
+
+    /**
+     * Auxiliary private method that records a package in the mailing class,
+     * package type, tracking number prefix and full-text indexes.
+     *
+     * @param p The package to index
+     */
+    private void indexPackageAttributes(Package p) {
+        mailingClassIndex.add(p.getMailingClass(), p);
+        packageTypeIndex.add(p.getClass(), p);
+        ptnPrefixIndex.add(p);
+        packageTextIndex.add(p, p.getSearchableText());
+    }
+
+    /**
+     * Find packages by the words of their specification, and of the content
+     * of crates and the material of drums. Words are matched whole and
+     * without regard to case, e.g. "fragile lithium". Only the index entries
+     * of the query words are read.
+     *
+     * @param query The words to look for
+     * @param matchAll true to require every word, false to require any
+     * @return A new list of the packages found
+     */
+    public List<Package> searchPackagesByText(String query, boolean matchAll) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return matchAll ? packageTextIndex.searchAll(query) : packageTextIndex.searchAny(query);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the packages whose tracking number starts with a prefix, in
+     * tracking number order. The cost depends on the number of matches
+     * returned, not on the size of the inventory.
+     *
+     * @param prefix The start of the tracking number
+     * @param limit Maximum number of packages to return
+     * @return A new list of at most limit packages
+     */
+    public List<Package> searchPackagesByPtnPrefix(String prefix, int limit) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return ptnPrefixIndex.withPrefix(prefix, limit);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the packages whose tracking number matches a wildcard pattern,
+     * where '*' stands for any run of characters and '?' for exactly one,
+     * in tracking number order. A pattern without wildcards is an exact
+     * match.
+     *
+     * @param pattern The pattern, e.g. "AB*7"
+     * @param limit Maximum number of packages to return
+     * @return A new list of at most limit packages
+     */
+    public List<Package> searchPackagesByPtn(String pattern, int limit) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return ptnPrefixIndex.matchingPattern(pattern, limit);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the packages with a given mailing class, e.g. all "Priority"
+     * packages, without scanning the inventory.
+     *
+     * @param mailingClass The mailing class
+     * @return A new list of the packages, in the order they were added
+     */
+    public List<Package> getPackagesByMailingClass(String mailingClass) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return mailingClassIndex.get(mailingClass);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the packages with a given mailing class.
+     *
+     * @param mailingClass The mailing class
+     * @return Number of packages
+     */
+    public int countPackagesByMailingClass(String mailingClass) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return mailingClassIndex.count(mailingClass);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the mailing classes used by at least one package.
+     *
+     * @return A read-only set of mailing classes
+     */
+    public Set<String> getMailingClasses() {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return mailingClassIndex.keys();
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the packages of a given type, e.g. all Drums, without scanning the
+     * inventory. Only packages of exactly that class are returned.
+     *
+     * @param type The package class, e.g. Drum.class
+     * @return A new list of the packages, in the order they were added
+     */
+    public <T extends Package> List<T> getPackagesByType(Class<T> type) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            @SuppressWarnings("unchecked")
+            List<T> found = (List<T>) packageTypeIndex.get(type);
+            return found;
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the packages of a given type.
+     *
+     * @param type The package class, e.g. Drum.class
+     * @return Number of packages
+     */
+    public int countPackagesByType(Class<? extends Package> type) {
+        ensureLoaded();
+        packageLock.readLock().lock();
+        try {
+            return packageTypeIndex.count(type);
+        } finally {
+            packageLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Auxiliary method that journals a new package and then adds it to the
+     * inventory. The tracking number is checked under the same lock, so two
+     * callers cannot both add the same one.
+     *
+     * @param p The package to add
+     * @return false if a package with the same tracking number exists
+     */
+    boolean addPackage(Package p) {
+        ensureLoaded();
+        packageLock.writeLock().lock();
+        try {
+            if (packageIndex.containsKey(p.getPtn())) {
+                return false;
+            }
+            if (journal != null) {
+                try {
+                    journal.logAddPackage(p);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            indexPackage(p);
+        } finally {
+            packageLock.writeLock().unlock();
+        }
+        mutated();
+        return true;
     }
 
     /**
@@ -85,10 +449,11 @@ public class ShippingStore {
      * @param mailingClass
      * @param height
      * @param width
+     * @return false if a package with the same tracking number exists
      */
-    public void addEnvelope(String ptn, String specification, String mailingClass, int height, int width) {
+    public boolean addEnvelope(String ptn, String specification, String mailingClass, int height, int width) {
         Envelope env = new Envelope(ptn, specification, mailingClass, height, width);
-        packageList.add(env);
+        return addPackage(env);
     }
 
     /**
@@ -98,10 +463,11 @@ public class ShippingStore {
      * @param mailingClass
      * @param dimension
      * @param volume
+     * @return false if a package with the same tracking number exists
      */
-    public void addBox(String ptn, String specification, String mailingClass, int dimension, int volume) {
+    public boolean addBox(String ptn, String specification, String mailingClass, int dimension, int volume) {
         Box box = new Box(ptn, specification, mailingClass, dimension, volume);
-        packageList.add(box);
+        return addPackage(box);
     }
 
     /**
@@ -111,10 +477,11 @@ public class ShippingStore {
      * @param mailingClass
      * @param loadWeight
      * @param content
+     * @return false if a package with the same tracking number exists
      */
-    public void addCrate(String ptn, String specification, String mailingClass, float loadWeight, String content) {
+    public boolean addCrate(String ptn, String specification, String mailingClass, float loadWeight, String content) {
         Crate crate = new Crate(ptn, specification, mailingClass, loadWeight, content);
-        packageList.add(crate);
+        return addPackage(crate);
     }
 
     /**
@@ -124,10 +491,11 @@ public class ShippingStore {
      * @param mailingClass
      * @param material
      * @param diameter
+     * @return false if a package with the same tracking number exists
      */
-    public void addDrum(String ptn, String specification, String mailingClass, String material, float diameter) {
+    public boolean addDrum(String ptn, String specification, String mailingClass, String material, float diameter) {
         Drum drum = new Drum(ptn, specification, mailingClass, material, diameter);
-        packageList.add(drum);
+        return addPackage(drum);
     }
 
 
@@ -138,14 +506,77 @@ public class ShippingStore {
      * @return True if the package was found and was deleted. False otherwise.
      */
     public boolean deletePackage(String ptn) {
+        ensureLoaded();
+        packageLock.writeLock().lock();
+        try {
+            if (!packageIndex.containsKey(ptn)) {
+                return false;
+            }
+            if (journal != null) {
+                try {
+                    journal.logDeletePackage(ptn);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            removePackage(ptn);
+        } finally {
+            packageLock.writeLock().unlock();
+        }
+        mutated();
+        return true;
+    }
+
+    /**
+     * Auxiliary private method that removes an indexed package from the
+     * inventory.
+     *
+     * @param ptn The package tracking number
+     */
+    private void removePackage(String ptn) {
+        unindexPackage(ptn);
+        publishPackages();
+    }
 
-        for (Package p : packageList) {
-            if (p.getPtn().equals(ptn)) {
-                packageList.remove(p);
-                return true;
+    /**
+     * Auxiliary private method that removes an indexed package from the
+     * inventory and its indexes, without publishing a new snapshot.
+     *
+     * @param ptn The package tracking number
+     */
+    private void unindexPackage(String ptn) {
+        int position = packageIndex.remove(ptn);
+        Package removed = packageList.get(position);
+        mailingClassIndex.remove(removed.getMailingClass(), removed);
+        packageTypeIndex.remove(removed.getClass(), removed);
+        ptnPrefixIndex.remove(removed);
+        packageTextIndex.remove(removed, removed.getSearchableText());
+
+        // Move the last package into the freed slot so the removal does not
+        // have to shift the rest of the list.
+        int last = packageList.size() - 1;
+        Package moved = packageList.get(last);
+        packageList = packageList.withoutLast();
+        if (position != last) {
+            packageList = packageList.withElement(position, moved);
+            Integer movedPosition = packageIndex.get(moved.getPtn());
+            if (movedPosition != null && movedPosition == last) {
+                packageIndex.put(moved.getPtn(), position);
+            }
+        }
+
+        // Databases from before tracking numbers were unique may hold
+        // duplicates; the next one takes over the tracking number. This is
+        // rare enough that finding its position by a scan is fine.
+        Package duplicate = ptnPrefixIndex.first(ptn);
+        if (duplicate != null) {
+            for (int i = 0; i < packageList.size(); i++) {
+                if (packageList.get(i) == duplicate) {
+                    packageIndex.put(ptn, i);
+                    break;
+                }
             }
         }
-        return false;
     }
 
 
@@ -154,19 +585,38 @@ public class ShippingStore {
      * manner.
      */
     private String getFormattedPackageList(List<Package> packages) {
-        String text = "---------------------------------------------------"
-                + "----------------------------------------------------------\n";
-        text += String.format("| %12s | %12s | %13s | %13s | %22s                       |%n",
-                "PACKAGE TYPE", "TRACKING #", "SPECIFICATION", "MAILING CLASS", "OTHER DETAILS");
-        text +=  "---------------------------------------------------"
-                + "----------------------------------------------------------\n";
+        StringBuilder text = new StringBuilder(PACKAGE_RULE.length() * (packages.size() + 4));
+        try {
+            writePackageReport(text, packages);
+        } catch (IOException ex) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(ex);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Auxiliary private method that writes a formatted table of packages.
+     */
+    private static void writePackageReport(Appendable out, Iterable<Package> packages) throws IOException {
+        out.append(PACKAGE_RULE).append(PACKAGE_HEADER).append(PACKAGE_RULE);
         for (Package p : packages) {
-            text += p.getFormattedText();
+            p.appendFormattedText(out);
         }
-        text += "---------------------------------------------------"
-                + "----------------------------------------------------------\n";
+        out.append(PACKAGE_RULE);
+    }
 
-        return text;
+    /**
+     * Write every package currently in the inventory to out, in the same
+     * format as getAllPackagesFormatted(). Rows are written one at a time
+     * from a snapshot, so the report takes constant memory and does not
+     * block changes to the store; out should be buffered.
+     *
+     * @param out Where to write the report
+     * @throws IOException if out cannot be written to
+     */
+    public void writePackageReport(Appendable out) throws IOException {
+        writePackageReport(out, snapshot().getPackages());
     }
 
     /**
@@ -175,7 +625,7 @@ public class ShippingStore {
      * @return
      */
     public String getAllPackagesFormatted() {
-        return getFormattedPackageList(packageList);
+        return getFormattedPackageList(getPackageList());
     }
 
     /**
@@ -196,9 +646,12 @@ public class ShippingStore {
      * @param lastName
      * @param phoneNumber
      * @param address
+     * @return true, or false if a user added with an explicit ID took the
+     * new ID first; the customer is not added then
      */
-    public void addCustomer(String firstName, String lastName, String phoneNumber, String address) {
-        users.add(new Customer(userIdCounter++, firstName, lastName, phoneNumber, address));
+    public boolean addCustomer(String firstName, String lastName, String phoneNumber, String address) {
+        ensureLoaded();
+        return addUser(new Customer(userIds.allocate(), firstName, lastName, phoneNumber, address));
     }
 
     /**
@@ -208,9 +661,59 @@ public class ShippingStore {
      * @param ssn
      * @param monthlySalary
      * @param bankAccNumber
+     * @return true, or false if a user added with an explicit ID took the
+     * new ID first; the employee is not added then
+     */
+    public boolean addEmployee(String firstName, String lastName, int ssn, float monthlySalary, int bankAccNumber) {
+        ensureLoaded();
+        return addUser(new Employee(userIds.allocate(), firstName, lastName, ssn, monthlySalary, bankAccNumber));
+    }
+
+    /**
+     * Auxiliary private method that appends a user to the users table and
+     * records it in the user ID and lookup indexes. The ID allocator is
+     * moved past the user's ID, so allocate() never hands it out again.
+     *
+     * @param u The user to add
+     * @return true, as specified by List.add
+     */
+    private boolean indexUser(User u) {
+        userIndex.put(u.getId(), u, users.size());
+        userIds.observe(u.getId());
+        userTextIndex.add(u, u.getSearchableText());
+        users = users.withAppended(u);
+        publishUsers();
+        return true;
+    }
+
+    /**
+     * Auxiliary private method that journals a new user and then adds it to
+     * the users table.
+     *
+     * @param u The user to add
+     * @return true, or false if a user with the same ID already exists
      */
-    public void addEmployee(String firstName, String lastName, int ssn, float monthlySalary, int bankAccNumber) {
-        users.add(new Employee(userIdCounter++, firstName, lastName, ssn, monthlySalary, bankAccNumber));
+    private boolean addUser(User u) {
+        ensureLoaded();
+        boolean added;
+        userLock.writeLock().lock();
+        try {
+            if (userIndex.containsKey(u.getId())) {
+                return false;
+            }
+            if (journal != null) {
+                try {
+                    journal.logAddUser(u);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            added = indexUser(u);
+        } finally {
+            userLock.writeLock().unlock();
+        }
+        mutated();
+        return added;
     }
 
 
@@ -220,35 +723,46 @@ public class ShippingStore {
      * manner.
      */
     private String getFormattedUserList(List<User> users) {
+        StringBuilder text = new StringBuilder(USER_RULE.length() * (users.size() + 4));
+        try {
+            writeUserReport(text, users);
+        } catch (IOException ex) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(ex);
+        }
+        return text.toString();
+    }
 
-        String text ="---------------------------------------------------"
-                + "------------------------------------------------"
-                + "---------------\n";
-        text += String.format("| %10s | %9s | %12s | %12s | %35s                    | %n",
-                "USER TYPE", "USER ID", "FIRST NAME", "LAST NAME", "OTHER DETAILS");
-        text += "---------------------------------------------------"
-                + "-----------------------------------------------"
-                + "---------------\n";
+    /**
+     * Auxiliary private method that writes a formatted table of users.
+     */
+    private static void writeUserReport(Appendable out, Iterable<User> users) throws IOException {
+        out.append(USER_RULE).append(USER_HEADER).append(USER_RULE);
         for (User u : users) {
-            text += u.getFormattedText();
+            u.appendFormattedText(out);
         }
-        text += "---------------------------------------------------"
-                + "-----------------------------------------------"
-                + "---------------\n";
-
-        return text;
+        out.append(USER_RULE);
     }
 
-
-
-
+    /**
+     * Write every user to out, in the same format as getAllUsersFormatted().
+     * Rows are written one at a time from a snapshot, so the report takes
+     * constant memory and does not block changes to the store; out should
+     * be buffered.
+     *
+     * @param out Where to write the report
+     * @throws IOException if out cannot be written to
+     */
+    public void writeUserReport(Appendable out) throws IOException {
+        writeUserReport(out, snapshot().getUsers());
+    }
 
     /**
      * Returns a string list of all users in the database in a formatted manner.
      * @return a formatted string of all the users in the database.
      */
     public String getAllUsersFormatted() {
-        return getFormattedUserList(users);
+        return getFormattedUserList(getUserList());
     }
 
     /**
@@ -269,15 +783,13 @@ public class ShippingStore {
      * @return
      */
     public User findUser(int userID) {
-        User user = null;
-
-        for (User u : users) {
-            if (u.getId() == userID) {
-                user = u;
-            }
+        ensureLoaded();
+        userLock.readLock().lock();
+        try {
+            return userIndex.get(userID);
+        } finally {
+            userLock.readLock().unlock();
         }
-
-        return user;
     }
 
     /**
@@ -314,15 +826,27 @@ public class ShippingStore {
      */
     public void updateCustomer(int userID, String firstName, String lastName,
                                String phoneNumber, String address) {
-        Customer customer = (Customer) findUser(userID);
-        if (customer == null) {
-            System.err.println("Customer not found!");
-            return;
+        ensureLoaded();
+        userLock.writeLock().lock();
+        try {
+            User user = findUser(userID);
+            if (!(user instanceof Customer)) {
+                System.err.println("Customer not found!");
+                return;
+            }
+            Customer updated = new Customer(userID, firstName, lastName, phoneNumber, address);
+            if (journal != null) {
+                try {
+                    journal.logUpdateUser(updated);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            replaceUser(updated);
+        } finally {
+            userLock.writeLock().unlock();
         }
-        customer.setFirstName(firstName);
-        customer.setLastName(lastName);
-        customer.setPhoneNumber(phoneNumber);
-        customer.setAddress(address);
+        mutated();
     }
 
     /**
@@ -336,16 +860,44 @@ public class ShippingStore {
      */
     public void updateEmployee(int userID, String firstName, String lastName,
                                int ssn, float monthlySalary, int bankAccNumber) {
-        Employee employee = (Employee) findUser(userID);
-        if (employee == null) {
-            System.err.println("Employee not found!");
-            return;
+        ensureLoaded();
+        userLock.writeLock().lock();
+        try {
+            User user = findUser(userID);
+            if (!(user instanceof Employee)) {
+                System.err.println("Employee not found!");
+                return;
+            }
+            Employee updated = new Employee(userID, firstName, lastName, ssn, monthlySalary, bankAccNumber);
+            if (journal != null) {
+                try {
+                    journal.logUpdateUser(updated);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            replaceUser(updated);
+        } finally {
+            userLock.writeLock().unlock();
         }
-        employee.setFirstName(firstName);
-        employee.setLastName(lastName);
-        employee.setSocialSecurityNumber(ssn);
-        employee.setMonthlySalary(monthlySalary);
-        employee.setBankAccountNumber(bankAccNumber);
+        mutated();
+    }
+
+    /**
+     * Auxiliary private method that puts the new state of a user in place of
+     * the stored user with the same ID. The old object is left untouched for
+     * snapshots that still hold it.
+     *
+     * @param updated The new state of the user
+     */
+    private void replaceUser(User updated) {
+        int row = userIndex.getRow(updated.getId());
+        User previous = users.get(row);
+        userTextIndex.remove(previous, previous.getSearchableText());
+        userTextIndex.add(updated, updated.getSearchableText());
+        users = users.withElement(row, updated);
+        userIndex.put(updated.getId(), updated, row);
+        publishUsers();
     }
 
     /**
@@ -359,110 +911,908 @@ public class ShippingStore {
      */
     public void addShppingTransaction(int customerId, int employeeId, String ptn,
                                       Date shippingDate, Date deliveryDate, float price) {
+        ensureLoaded();
         Transaction trans = new Transaction(customerId, employeeId, ptn, shippingDate, deliveryDate, price);
-        transactions.add(trans);
-    }
-
-
-    /**
-     * Return a list of all recorded transactions.
-     *
-     * @return transactions
-     */
-    public String getAllTransactionsText() {
-        String transText = "";
-        for (Transaction trans : transactions) {
-            transText += trans.toString();
+        transactionLock.writeLock().lock();
+        try {
+            reserveTransactions(1);
+            long lsn = 0;
+            if (journal != null) {
+                try {
+                    lsn = journal.logAddTransaction(trans);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            try {
+                transactions.append(trans, lsn);
+            } catch (IOException ex) {
+                // Already journaled, so it is appended again on the next start.
+                System.err.println("Transaction store write failed: " + ex);
+                throw new UncheckedIOException("Could not write to the transaction store", ex);
+            }
+            publishTransactions();
+        } finally {
+            transactionLock.writeLock().unlock();
         }
-        return transText;
+        mutated();
     }
 
 
     /**
-     * This method is used to read the database from a file, serializable
-     * objects.
+     * Deliver a batch of packages, e.g. an end-of-day manifest. For every
+     * delivery a shipping transaction is recorded and the package is
+     * removed from the inventory.
      *
-     * @return A new ShippingStore object.
+     * The whole batch is checked first: every package must be in the
+     * inventory and appear only once in the batch, every customer ID must
+     * belong to a customer and every employee ID to an employee. If any
+     * delivery fails, nothing is applied. Room for every transaction is
+     * then made in the transaction table, so no append can fail once the
+     * batch is journaled. Finally the batch is written to the journal as a
+     * single record and published as a single snapshot, so neither readers
+     * nor a restart after a crash ever see part of it.
+     *
+     * @param deliveries The deliveries
+     * @throws BadInputException if any delivery is invalid; the message
+     * lists the problems found
      */
-    @SuppressWarnings("unchecked") // This will prevent Java unchecked operation warning when
-    // convering from serialized Object to Arraylist<>
-    public static ShippingStore readDatabase() {
-        System.out.print("Reading database...");
-
-        File dataFile = new File("ShippingStore.ser");
-
-        ShippingStore ss = null;
+    public void deliverPackages(List<Delivery> deliveries) throws BadInputException {
+        ensureLoaded();
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        List<Transaction> batch = new ArrayList<Transaction>(deliveries.size());
+        for (Delivery d : deliveries) {
+            batch.add(d.toTransaction());
+        }
 
-        // Try to read existing dealership database from a file
-        InputStream file = null;
-        InputStream buffer = null;
-        ObjectInput input = null;
+        packageLock.writeLock().lock();
+        userLock.readLock().lock();
+        transactionLock.writeLock().lock();
         try {
-            if (!dataFile.exists()) {
-                System.out.println("Data file does not exist. Creating a new database.");
-                ss = new ShippingStore();
-                return ss;
-            }
-            file = new FileInputStream(dataFile);
-            buffer = new BufferedInputStream(file);
-            input = new ObjectInputStream(buffer);
-
-            // Read serilized data
-            List<Package> packageList = (ArrayList<Package>) input.readObject();
-            List<User> users = (ArrayList<User>) input.readObject();
-            List<Transaction> transactions = (ArrayList<Transaction>) input.readObject();
-            ss = new ShippingStore(packageList, users, transactions);
-            ss.userIdCounter = input.readInt();
-
-            input.close();
-        } catch (ClassNotFoundException ex) {
-            System.err.println(ex.toString());
-        } catch (FileNotFoundException ex) {
-            System.err.println("Database file not found.");
-        } catch (IOException ex) {
-            System.err.println(ex.toString());
+            checkDeliveries(deliveries);
+            // With room made first, no append below can fail, so the batch is
+            // never left in the table half applied.
+            reserveTransactions(batch.size());
+            long firstLsn = 0;
+            if (journal != null) {
+                try {
+                    firstLsn = journal.logDeliveries(batch);
+                } catch (IOException ex) {
+                    throw journalFailure(ex);
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    transactions.append(batch.get(i), journal == null ? 0 : firstLsn + i);
+                } catch (IOException ex) {
+                    // Room was reserved, so this cannot happen for lack of
+                    // space; the batch is journaled and applied again on the
+                    // next start.
+                    System.err.println("Transaction store write failed: " + ex);
+                    throw new UncheckedIOException("Could not write to the transaction store", ex);
+                }
+            }
+            for (Delivery d : deliveries) {
+                unindexPackage(d.getPtn());
+            }
+            publishDeliveries();
         } finally {
-            close(file);
+            transactionLock.writeLock().unlock();
+            userLock.readLock().unlock();
+            packageLock.writeLock().unlock();
         }
-        System.out.println("Done.");
-
-        return ss;
+        mutated();
     }
 
     /**
-     * This method is used to save the Dealership database as a serializable
-     * object.
+     * Auxiliary private method that makes room in the transaction table
+     * before anything is journaled. Called with the transaction lock held.
      */
-    public void writeDatabase() {
-        System.out.print("Writing database...");
-        //serialize the database
-        OutputStream file = null;
-        OutputStream buffer = null;
-        ObjectOutput output = null;
+    private void reserveTransactions(int rows) {
         try {
-            file = new FileOutputStream("ShippingStore.ser");
-            buffer = new BufferedOutputStream(file);
-            output = new ObjectOutputStream(buffer);
-
-            output.writeObject(packageList);
-            output.writeObject(users);
-            output.writeObject(transactions);
-            output.writeInt(userIdCounter);
-
-            output.close();
+            transactions.reserve(rows);
         } catch (IOException ex) {
-            System.err.println(ex.toString());
-        } finally {
-            close(file);
+            System.err.println("Transaction store write failed: " + ex);
+            throw new UncheckedIOException("Could not write to the transaction store", ex);
         }
-        System.out.println("Done.");
     }
+
     /**
-     * getUserDatabaseSize() is a helper function for the GUI, returns the users.size()
+     * Auxiliary private method that checks a batch of deliveries against the
+     * indexes. Called with the package and user locks held.
+     *
+     * @throws BadInputException listing the problems found, if any
+     */
+    private void checkDeliveries(List<Delivery> deliveries) throws BadInputException {
+        List<String> problems = new ArrayList<String>();
+        Set<String> seen = new HashSet<String>(deliveries.size() * 2);
+        for (Delivery d : deliveries) {
+            if (!packageIndex.containsKey(d.getPtn())) {
+                problems.add("Package " + d.getPtn() + " is not in the inventory");
+            } else if (!seen.add(d.getPtn())) {
+                problems.add("Package " + d.getPtn() + " is delivered more than once");
+            }
+            if (!(userIndex.get(d.getCustomerId()) instanceof Customer)) {
+                problems.add("CustomerID " + d.getCustomerId() + " is not a customer in the database");
+            }
+            if (!(userIndex.get(d.getEmployeeId()) instanceof Employee)) {
+                problems.add("EmployeeID " + d.getEmployeeId() + " is not an employee in the database");
+            }
+        }
+        if (problems.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < problems.size() && i < MAX_REPORTED_PROBLEMS; i++) {
+            message.append(problems.get(i)).append('\n');
+        }
+        if (problems.size() > MAX_REPORTED_PROBLEMS) {
+            message.append("... and ").append(problems.size() - MAX_REPORTED_PROBLEMS).append(" more problems\n");
+        }
+        throw new BadInputException(message.toString().trim());
+    }
+
+    /**
+     * Get the transactions of a customer, oldest first. Only that
+     * customer's rows are read, however long the history is.
+     *
+     * @param customerId The customer ID
+     * @return A new list of the customer's transactions
+     */
+    public List<Transaction> getTransactionsOfCustomer(int customerId) {
+        ensureLoaded();
+        int[] rows;
+        TransactionTable table;
+        transactionLock.readLock().lock();
+        try {
+            rows = customerTransactions.get(customerId);
+            table = transactions;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        return transactionsAt(table, rows);
+    }
+
+    /**
+     * Count the transactions of a customer.
+     *
+     * @param customerId The customer ID
+     * @return Number of transactions
+     */
+    public int countTransactionsOfCustomer(int customerId) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return customerTransactions.count(customerId);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the transactions handled by an employee, oldest first. Only that
+     * employee's rows are read, however long the history is.
+     *
+     * @param employeeId The employee ID
+     * @return A new list of the employee's transactions
+     */
+    public List<Transaction> getTransactionsOfEmployee(int employeeId) {
+        ensureLoaded();
+        int[] rows;
+        TransactionTable table;
+        transactionLock.readLock().lock();
+        try {
+            rows = employeeTransactions.get(employeeId);
+            table = transactions;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        return transactionsAt(table, rows);
+    }
+
+    /**
+     * Count the transactions handled by an employee.
+     *
+     * @param employeeId The employee ID
+     * @return Number of transactions
+     */
+    public int countTransactionsOfEmployee(int employeeId) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return employeeTransactions.count(employeeId);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the transactions delivered in a time range, in delivery order.
+     * Only the matching rows are read.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return A new list of the transactions
+     */
+    public List<Transaction> transactionsBetween(Date from, Date to) {
+        return transactionsBetween(false, from, to);
+    }
+
+    /**
+     * Get the transactions shipped in a time range, in shipping order.
+     * Only the matching rows are read.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return A new list of the transactions
+     */
+    public List<Transaction> transactionsShippedBetween(Date from, Date to) {
+        return transactionsBetween(true, from, to);
+    }
+
+    /**
+     * Auxiliary private method that reads the transactions in a time range
+     * of the shipping or delivery date index.
+     */
+    private List<Transaction> transactionsBetween(boolean byShipping, Date from, Date to) {
+        ensureLoaded();
+        int[] rows;
+        TransactionTable table;
+        transactionLock.readLock().lock();
+        try {
+            TimeIndex index = byShipping ? shippingTimes : deliveryTimes;
+            rows = index.rowsBetween(from.getTime(), to.getTime());
+            table = transactions;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        return transactionsAt(table, rows);
+    }
+
+    /**
+     * Count the transactions delivered in each period of a time range, e.g.
+     * per day of a month. Each count is two binary searches, so the cost
+     * depends on the number of periods, not on the number of transactions.
+     *
+     * @param period Length of each bucket
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return The counts, keyed by the start of each period, in time order;
+     * the first key is the start of the period holding from
+     */
+    public SortedMap<Date, Integer> countDeliveriesByPeriod(TimeIndex.Period period, Date from, Date to) {
+        ensureLoaded();
+        SortedMap<Date, Integer> counts = new TreeMap<Date, Integer>();
+        long end = to.getTime();
+        transactionLock.readLock().lock();
+        try {
+            long start = period.floor(from.getTime());
+            while (start < end) {
+                long next = period.next(start);
+                counts.put(new Date(start),
+                        deliveryTimes.countBetween(Math.max(start, from.getTime()), Math.min(next, end)));
+                start = next;
+            }
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the transactions delivered in each period of a time range, e.g.
+     * per week of a quarter. Only the rows inside the range are read.
+     *
+     * @param period Length of each bucket
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return The transactions, keyed by the start of each period, in time
+     * order; the first key is the start of the period holding from
+     */
+    public SortedMap<Date, List<Transaction>> getDeliveriesByPeriod(TimeIndex.Period period, Date from, Date to) {
+        ensureLoaded();
+        SortedMap<Date, int[]> buckets = new TreeMap<Date, int[]>();
+        long end = to.getTime();
+        TransactionTable table;
+        transactionLock.readLock().lock();
+        try {
+            long start = period.floor(from.getTime());
+            while (start < end) {
+                long next = period.next(start);
+                buckets.put(new Date(start),
+                        deliveryTimes.rowsBetween(Math.max(start, from.getTime()), Math.min(next, end)));
+                start = next;
+            }
+            table = transactions;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        SortedMap<Date, List<Transaction>> found = new TreeMap<Date, List<Transaction>>();
+        for (Map.Entry<Date, int[]> bucket : buckets.entrySet()) {
+            found.put(bucket.getKey(), transactionsAt(table, bucket.getValue()));
+        }
+        return found;
+    }
+
+    /**
+     * Get the revenue of all transactions. Revenue aggregates are kept up to
+     * date as transactions are added, so this and the other revenue queries
+     * never read the transactions themselves.
+     *
+     * @return The revenue
+     */
+    public Revenue getTotalRevenue() {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getTotal();
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the revenue of the transactions handled by an employee.
+     *
+     * @param employeeId The employee ID
+     * @return The revenue; Revenue.NONE if there are none
+     */
+    public Revenue getRevenueOfEmployee(int employeeId) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getEmployee(employeeId);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the revenue of the transactions of a customer.
+     *
+     * @param customerId The customer ID
+     * @return The revenue; Revenue.NONE if there are none
+     */
+    public Revenue getRevenueOfCustomer(int customerId) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getCustomer(customerId);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the revenue of each delivery day in a time range. Days without
+     * deliveries are left out.
+     *
+     * @param from Start of the range; the whole day holding it is included
+     * @param to End of the range, exclusive
+     * @return The revenue, keyed by the start of each day, in time order
+     */
+    public SortedMap<Date, Revenue> getRevenueByDay(Date from, Date to) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getDays(from.getTime(), to.getTime());
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the revenue of every employee with transactions.
+     *
+     * @return A new map from employee ID to revenue
+     */
+    public Map<Integer, Revenue> getRevenueByEmployee() {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getEmployees();
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the customers who spent the most, e.g. for a "top 20 customers"
+     * leaderboard. The leaders are kept up to date as transactions are
+     * added, so this does not sort anything.
+     *
+     * @param limit Maximum number of customers, at most
+     * RevenueIndex.LEADERBOARD_SIZE
+     * @return A new map from customer ID to revenue, highest total first
+     */
+    public Map<Integer, Revenue> getTopCustomersBySpend(int limit) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getTopCustomers(limit);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the employees who handled the most transactions. Like
+     * getTopCustomersBySpend(), this does not sort anything.
+     *
+     * @param limit Maximum number of employees, at most
+     * RevenueIndex.LEADERBOARD_SIZE
+     * @return A new map from employee ID to revenue, most transactions first
+     */
+    public Map<Integer, Revenue> getTopEmployeesByDeliveries(int limit) {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getTopEmployees(limit);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the revenue of every customer with transactions.
+     *
+     * @return A new map from customer ID to revenue
+     */
+    public Map<Integer, Revenue> getRevenueByCustomer() {
+        ensureLoaded();
+        transactionLock.readLock().lock();
+        try {
+            return revenue.getCustomers();
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Return a list of all recorded transactions.
+     *
+     * @return transactions
+     */
+    public String getAllTransactionsText() {
+        StringBuilder transText = new StringBuilder();
+        try {
+            writeTransactionReport(transText);
+        } catch (IOException ex) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(ex);
+        }
+        return transText.toString();
+    }
+
+    /**
+     * Write every recorded transaction to out, in the same format as
+     * getAllTransactionsText(). Rows are read one at a time from a snapshot
+     * of the transaction table, so the report takes constant memory; out
+     * should be buffered.
+     *
+     * @param out Where to write the report
+     * @throws IOException if out cannot be written to
+     */
+    public void writeTransactionReport(Appendable out) throws IOException {
+        StoreSnapshot current = snapshot();
+        TransactionTable table = current.getTransactionTable();
+        for (int row = 0; row < current.getTransactionCount(); row++) {
+            out.append(table.get(row).toString());
+        }
+    }
+
+
+    /**
+     * This method is used to read the database from a file, and then replay
+     * the journal on top of it. The journal sync
+     * policy is taken from the SYNC_POLICY_PROPERTY system property.
+     *
+     * @return A new ShippingStore object.
+     */
+    public static ShippingStore readDatabase() {
+        return readDatabase(syncPolicyFromProperty());
+    }
+
+    /**
+     * This method is used to read the database from a file, map the
+     * transaction history, and then replay the journal on top of them. Every
+     * later change to the returned store is appended to the journal.
+     *
+     * @param policy When journal records are forced to disk
+     * @return A new ShippingStore object.
+     */
+    public static ShippingStore readDatabase(Journal.SyncPolicy policy) {
+        ShippingStore ss = new ShippingStore();
+        return ss.load(policy) ? ss : null;
+    }
+
+    /**
+     * Return a store at once and read the database into it from a background
+     * thread. Every method that touches the tables waits until the load has
+     * finished, so callers can show their first window right away and only
+     * block when they actually need the data. If the database cannot be
+     * read, the store stays empty, like the one created when readDatabase
+     * returns null, and is never saved over the files it could not read.
+     * The journal sync policy is taken from the
+     * SYNC_POLICY_PROPERTY system property.
+     *
+     * @return A new ShippingStore object, never null.
+     */
+    public static ShippingStore readDatabaseLazily() {
+        final Journal.SyncPolicy policy = syncPolicyFromProperty();
+        final ShippingStore ss = new ShippingStore();
+        FutureTask<Boolean> task = new FutureTask<Boolean>(() -> ss.load(policy));
+        ss.loading = task;
+
+        Thread loader = new Thread(task, "database-loader");
+        loader.start();
+        return ss;
+    }
+
+    /**
+     * Auxiliary private method that reads the database file into this store,
+     * maps the transaction history, and replays the journal. The tables are
+     * left empty if the database or the journal cannot be read.
+     *
+     * @return true if the database was read.
+     */
+    private boolean load(Journal.SyncPolicy policy) {
+        System.out.print("Reading database...");
+
+        File dataFile = new File(DATABASE_FILE);
+        File legacyFile = new File(LEGACY_DATABASE_FILE);
+
+        boolean loaded = false;
+        // Stays set if load() ends with an exception.
+        readFailed = true;
+
+        // Try to read existing dealership database from a file
+        InputStream file = null;
+        MappedTransactionTable history = null;
+        try {
+            history = MappedTransactionTable.open(new File(TRANSACTION_FILE));
+            if (!dataFile.exists() && legacyFile.exists()) {
+                System.out.print("converting " + LEGACY_DATABASE_FILE + "...");
+                LegacyDatabaseConverter.convert(legacyFile, dataFile);
+            }
+            if (!dataFile.exists()) {
+                System.out.println("Data file does not exist. Creating a new database.");
+                setTables(new ArrayList<Package>(), new ArrayList<User>(), history);
+            } else {
+                file = new FileInputStream(dataFile);
+                StoreImage image = RecordCodec.readDatabase(new BufferedInputStream(file, 1 << 16));
+                if (!image.transactions.isEmpty() && history.size() == 0) {
+                    // Saved before the history had its own files; move it
+                    // over, all of it or, if this fails, none of it.
+                    history.close();
+                    history = null;
+                    MappedTransactionTable.create(new File(TRANSACTION_FILE), image.transactions, image.lsn);
+                    history = MappedTransactionTable.open(new File(TRANSACTION_FILE));
+                }
+                setTables(image.packages, image.users, history);
+                userIds.advanceTo(image.userIdCounter);
+                snapshotLsn = image.lsn;
+            }
+            loaded = true;
+        } catch (FileNotFoundException ex) {
+            System.err.println("Database file not found.");
+        } catch (IOException ex) {
+            System.err.println(ex.toString());
+        } finally {
+            close(file);
+            if (!loaded) {
+                close(history);
+            }
+        }
+
+        if (loaded) {
+            try {
+                journal = Journal.open(new File(JOURNAL_FILE), policy, snapshotLsn, new JournalReplayer());
+            } catch (IOException | UncheckedIOException ex) {
+                // Part of the journal may already be applied; an image saved
+                // from these tables would be tagged as containing none of it,
+                // and the next start would apply it again.
+                System.err.println("Could not replay the journal. " + ex);
+                setTables(new ArrayList<Package>(), new ArrayList<User>(), new ColumnarTransactionTable());
+                snapshotLsn = 0;
+                close(history);
+                loaded = false;
+            }
+        }
+        readFailed = !loaded;
+        System.out.println("Done.");
+
+        return loaded;
+    }
+
+    /**
+     * Auxiliary private method that waits for a background load started by
+     * readDatabaseLazily to finish. Returns at once for other stores.
+     */
+    private void ensureLoaded() {
+        Future<?> pending = loading;
+        if (pending == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.get();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            } catch (ExecutionException ex) {
+                // load() reports its own errors and leaves the store empty.
+                System.err.println(ex.getCause().toString());
+                break;
+            }
+        }
+        loading = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Auxiliary private method that reads the journal sync policy from the
+     * SYNC_POLICY_PROPERTY system property.
+     */
+    private static Journal.SyncPolicy syncPolicyFromProperty() {
+        Journal.SyncPolicy policy = Journal.SyncPolicy.EVERY_OPERATION;
+        String name = System.getProperty(SYNC_POLICY_PROPERTY);
+        if (name != null) {
+            try {
+                policy = Journal.SyncPolicy.valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Unknown journal sync policy '" + name + "', using " + policy);
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * This method is used to save the Dealership database to a file. It takes
+     * a checkpoint in the calling thread.
+     */
+    public void writeDatabase() {
+        System.out.print("Writing database...");
+        try {
+            checkpoint();
+        } catch (IOException ex) {
+            System.err.println(ex.toString());
+        }
+        System.out.println("Done.");
+    }
+
+    /**
+     * Save a consistent image of the database and delete the journal segments
+     * it makes obsolete. The store is only locked while the current versions
+     * of the tables are taken; the image is written to a temporary file, synced, and renamed over the
+     * old one while other threads keep changing the store.
+     *
+     * @throws IOException if the image cannot be written, or if the store
+     * failed to read the database and would overwrite it
+     */
+    public void checkpoint() throws IOException {
+        ensureLoaded();
+        if (readFailed) {
+            throw new IOException("The database could not be read; not overwriting it");
+        }
+        synchronized (checkpointLock) {
+            StoreImage image;
+            Journal log = null;
+            int journalSegment = 0;
+
+            // Take the tables and roll the journal over to a new segment, so
+            // every record in the older segments is contained in the image or,
+            // for a persistent transaction table, in its files. Holding every
+            // read lock keeps writers out of the journal meanwhile.
+            packageLock.readLock().lock();
+            userLock.readLock().lock();
+            transactionLock.readLock().lock();
+            try {
+                long lsn = snapshotLsn;
+                if (journal != null) {
+                    log = journal;
+                    journalSegment = log.roll();
+                    lsn = log.getLastLsn();
+                }
+                List<Transaction> history = transactions.isPersistent()
+                        ? Collections.<Transaction>emptyList()
+                        : new ArrayList<Transaction>(transactions.asList());
+                image = new StoreImage(packageList, users, history, userIds.peek(), lsn);
+            } finally {
+                transactionLock.readLock().unlock();
+                userLock.readLock().unlock();
+                packageLock.readLock().unlock();
+            }
+            // The image no longer covers rows up to its LSN, so they must be
+            // on disk before it replaces the old one.
+            transactions.force();
+
+            File dataFile = new File(DATABASE_FILE);
+            File tempFile = new File(DATABASE_FILE + ".tmp");
+            FileOutputStream file = null;
+            try {
+                file = new FileOutputStream(tempFile);
+                OutputStream buffer = new BufferedOutputStream(file, 1 << 16);
+                RecordCodec.writeDatabase(buffer, image);
+                buffer.flush();
+                file.getFD().sync();
+            } finally {
+                close(file);
+            }
+            Files.move(tempFile.toPath(), dataFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            snapshotLsn = image.lsn;
+            if (log != null) {
+                log.discardSegmentsBefore(journalSegment);
+            }
+        }
+    }
+
+    /**
+     * Start saving checkpoints from a background thread.
+     *
+     * @param intervalMillis Time between checkpoints, or 0 to disable the timer
+     * @param mutationThreshold Number of changes that triggers a checkpoint,
+     *                          or 0 to disable the trigger
+     */
+    public synchronized void startCheckpointing(long intervalMillis, int mutationThreshold) {
+        if (checkpointer == null) {
+            checkpointer = new Checkpointer(this, intervalMillis, mutationThreshold);
+        }
+    }
+
+    /**
+     * Stop background checkpoints, force any outstanding journal records and
+     * transactions to disk and close their files. The store must not be
+     * changed afterwards.
+     */
+    public void closeDatabase() {
+        ensureLoaded();
+        Checkpointer c;
+        synchronized (this) {
+            c = checkpointer;
+            checkpointer = null;
+        }
+        if (c != null) {
+            c.close();
+        }
+        packageLock.writeLock().lock();
+        userLock.writeLock().lock();
+        transactionLock.writeLock().lock();
+        try {
+            close(journal);
+            journal = null;
+            close(transactions);
+        } finally {
+            transactionLock.writeLock().unlock();
+            userLock.writeLock().unlock();
+            packageLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Auxiliary private methods that publish a new snapshot after a change
+     * to one table. Called with that table's write lock held, so its part of
+     * the current snapshot is always its latest version.
+     */
+    private void publishPackages() {
+        final PersistentVector<Package> current = packageList;
+        snapshot.updateAndGet(s -> s.withPackages(current));
+    }
+
+    private void publishUsers() {
+        final PersistentVector<User> current = users;
+        snapshot.updateAndGet(s -> s.withUsers(current));
+    }
+
+    private void publishDeliveries() {
+        indexTransactions();
+        final PersistentVector<Package> currentPackages = packageList;
+        final TransactionTable table = transactions;
+        final int count = table.size();
+        snapshot.updateAndGet(s -> s.withDeliveries(currentPackages, table, count));
+    }
+
+    private void publishTransactions() {
+        indexTransactions();
+        final TransactionTable table = transactions;
+        final int count = table.size();
+        snapshot.updateAndGet(s -> s.withTransactions(table, count));
+    }
+
+    /**
+     * Auxiliary private method that adds the transaction rows appended since
+     * the last call to the customer and employee indexes. Called with the
+     * transactions write lock held, or while the store is being set up.
+     */
+    private void indexTransactions() {
+        int size = transactions.size();
+        int count = size - indexedTransactions;
+        if (count == 0) {
+            return;
+        }
+        for (int row = indexedTransactions; row < size; row++) {
+            customerTransactions.add(transactions.getCustomerId(row), row);
+            employeeTransactions.add(transactions.getEmployeeId(row), row);
+            revenue.add(transactions.getCustomerId(row), transactions.getEmployeeId(row),
+                    transactions.getDeliveryTime(row), transactions.getPrice(row));
+        }
+        if (count == 1) {
+            indexTime(shippingTimes, transactions.getShippingTime(indexedTransactions), indexedTransactions);
+            indexTime(deliveryTimes, transactions.getDeliveryTime(indexedTransactions), indexedTransactions);
+        } else {
+            // Many rows at once, e.g. at load: sort them instead of inserting one by one.
+            long[] shipped = new long[count];
+            long[] delivered = new long[count];
+            int[] shippedRows = new int[count];
+            int[] deliveredRows = new int[count];
+            int shippedCount = 0;
+            int deliveredCount = 0;
+            for (int row = indexedTransactions; row < size; row++) {
+                long time = transactions.getShippingTime(row);
+                if (time != TransactionTable.NO_DATE) {
+                    shipped[shippedCount] = time;
+                    shippedRows[shippedCount++] = row;
+                }
+                time = transactions.getDeliveryTime(row);
+                if (time != TransactionTable.NO_DATE) {
+                    delivered[deliveredCount] = time;
+                    deliveredRows[deliveredCount++] = row;
+                }
+            }
+            shippingTimes.addAll(shipped, shippedRows, shippedCount);
+            deliveryTimes.addAll(delivered, deliveredRows, deliveredCount);
+        }
+        indexedTransactions = size;
+    }
+
+    private static void indexTime(TimeIndex index, long time, int row) {
+        if (time != TransactionTable.NO_DATE) {
+            index.add(time, row);
+        }
+    }
+
+    /**
+     * Auxiliary private method that reads the given rows of the transaction
+     * table. Rows never change once appended, so this needs no lock.
+     */
+    private static List<Transaction> transactionsAt(TransactionTable table, int[] rows) {
+        List<Transaction> found = new ArrayList<Transaction>(rows.length);
+        for (int row : rows) {
+            found.add(table.get(row));
+        }
+        return found;
+    }
+
+    /**
+     * Auxiliary private method that tells the checkpointer about a change.
+     */
+    private void mutated() {
+        if (checkpointer != null) {
+            checkpointer.mutated();
+        }
+    }
+
+    /**
+     * getPackageDatabaseSize() is a helper function for the GUI, returns the packageList.size()
+     * @return an int, packageList.size()
+     */
+    public int getPackageDatabaseSize() {
+        return snapshot().getPackages().size();
+    }
+
+    /**
+     * getUserDatabaseSize() is a helper function for the GUI, returns the users.size()
      * @return an int, users.size()
      */
     public int getUserDatabaseSize() {
-        return users.size();
+        return snapshot().getUsers().size();
     }
 
     /**
@@ -472,16 +1822,36 @@ public class ShippingStore {
      * @return a User object, users.get(i)
      */
     public User getUserAtPosition(int i) {
-        return users.get(i);
+        return snapshot().getUsers().get(i);
+    }
+
+    /**
+     * Find users by a partial or misspelled name, and customers also by a
+     * fragment of their phone number or address, best match first. Only
+     * the lookup index entries of the query are read, never the whole user
+     * list.
+     *
+     * @param query The text to look for, e.g. "smi" or "555 12"
+     * @param limit Maximum number of users to return
+     * @return A new list of at most limit users
+     */
+    public List<User> findUsers(String query, int limit) {
+        ensureLoaded();
+        userLock.readLock().lock();
+        try {
+            return userTextIndex.search(query, limit);
+        } finally {
+            userLock.readLock().unlock();
+        }
     }
 
     /**
      * addUserDirectly() is a helper method to the GUI and adds a User obj directly to users
      * @param obj of User datatype
-     * @return true if users.add(obj) is successful, false otherwise
+     * @return true if users.add(obj) is successful, false if a user with the same ID already exists
      */
     public boolean addUserDirectly(User obj) {
-        return users.add(obj);
+        return addUser(obj);
     }
 
 
@@ -502,9 +1872,98 @@ public class ShippingStore {
         }
     }
 
+    /**
+     * Auxiliary private method that wraps a failed journal write. The change
+     * that was being logged is not applied.
+     */
+    private static UncheckedIOException journalFailure(IOException ex) {
+        System.err.println("Journal write failed: " + ex);
+        return new UncheckedIOException("Could not write to the journal", ex);
+    }
+
+    /**
+     * Applies replayed journal records to this store. The journal is not yet
+     * attached while replaying, so nothing is logged twice.
+     */
+    private class JournalReplayer implements Journal.Handler {
+
+        @Override
+        public void packageAdded(Package p) {
+            indexPackage(p);
+        }
+
+        @Override
+        public void packageDeleted(String ptn) {
+            if (packageIndex.containsKey(ptn)) {
+                removePackage(ptn);
+            }
+        }
+
+        @Override
+        public void userAdded(User u) {
+            indexUser(u);
+        }
+
+        @Override
+        public void userUpdated(User u) {
+            User user = userIndex.get(u.getId());
+            if (user != null && user.getClass() == u.getClass()) {
+                replaceUser(u);
+            }
+        }
+
+        @Override
+        public void packagesDelivered(List<Transaction> deliveries, long firstLsn) {
+            for (int i = 0; i < deliveries.size(); i++) {
+                // Rows the transaction table already holds are skipped.
+                if (firstLsn + i > transactions.getLastLsn()) {
+                    try {
+                        transactions.append(deliveries.get(i), firstLsn + i);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+                if (packageIndex.containsKey(deliveries.get(i).getPtn())) {
+                    unindexPackage(deliveries.get(i).getPtn());
+                }
+            }
+            publishDeliveries();
+        }
+
+        @Override
+        public void transactionAdded(Transaction t, long lsn) {
+            // Rows the transaction table already holds are skipped.
+            if (lsn > transactions.getLastLsn()) {
+                try {
+                    transactions.append(t, lsn);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                publishTransactions();
+            }
+        }
+    }
+
+    /**
+     * Get a new user ID for a user added with addUserDirectly(). IDs come
+     * from the same sequence as those of addCustomer/addEmployee and are
+     * unique even when users are created concurrently.
+     *
+     * @return An ID no user has
+     */
+    public int allocateUserId() {
+        ensureLoaded();
+        return userIds.allocate();
+    }
+
+    /**
+     * @deprecated Use allocateUserId(); this used to pick a random ID that
+     * could collide with an existing one.
+     * @return A new user ID
+     */
+    @Deprecated
     public int idGen() {
-        Random r = new Random(System.currentTimeMillis());
-        return((1+r.nextInt(2)) * 10000 + r.nextInt(10000));
+        return allocateUserId();
     }
 
 }
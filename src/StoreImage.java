@@ -0,0 +1,39 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.List;
+
+/**
+ * StoreImage is a point-in-time copy of the ShippingStore tables, as written
+ * to or read from the database file.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class StoreImage {
+
+    final List<Package> packages;
+    final List<User> users;
+    final List<Transaction> transactions;
+    final int userIdCounter;
+    final long lsn;
+
+    /**
+     * Constructor initializes an image with the provided values.
+     * @param packages Inventory table
+     * @param users Users table
+     * @param transactions Transactions table
+     * @param userIdCounter Next ID handed out by addCustomer/addEmployee
+     * @param lsn LSN of the last journal record contained in the image
+     */
+    public StoreImage(List<Package> packages, List<User> users, List<Transaction> transactions,
+                      int userIdCounter, long lsn) {
+        this.packages = packages;
+        this.users = users;
+        this.transactions = transactions;
+        this.userIdCounter = userIdCounter;
+        this.lsn = lsn;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.List;
+
+/**
+ * StoreSnapshot is an immutable, versioned view of the ShippingStore tables.
+ * The store publishes a new snapshot after every change, sharing all
+ * unchanged data with the previous one, so taking a snapshot is a single
+ * field read and iterating it never blocks writers or sees a half-applied
+ * change. Users in a snapshot are never modified; an update puts a new User
+ * object in the next snapshot instead.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public final class StoreSnapshot {
+
+    private final long version;
+    private final PersistentVector<Package> packages;
+    private final PersistentVector<User> users;
+    private final TransactionTable transactions;
+    private final int transactionCount;
+
+    /**
+     * Constructor initializes a snapshot with the provided values.
+     * @param version Number of changes published before this snapshot
+     * @param packages Inventory table
+     * @param users Users table
+     * @param transactions Transactions table; rows are never changed once appended
+     * @param transactionCount Number of transaction rows in the snapshot
+     */
+    StoreSnapshot(long version, PersistentVector<Package> packages, PersistentVector<User> users,
+                  TransactionTable transactions, int transactionCount) {
+        this.version = version;
+        this.packages = packages;
+        this.users = users;
+        this.transactions = transactions;
+        this.transactionCount = transactionCount;
+    }
+
+    /**
+     * Get the version of this snapshot. Later snapshots have higher versions.
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the packages in the inventory.
+     * @return A read-only list of packages
+     */
+    public List<Package> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Get the users.
+     * @return A read-only list of users
+     */
+    public List<User> getUsers() {
+        return users;
+    }
+
+    /**
+     * Get the number of completed transactions.
+     * @return transactionCount
+     */
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Get the transaction table. Only rows below getTransactionCount()
+     * belong to this snapshot.
+     * @return transactions
+     */
+    public TransactionTable getTransactionTable() {
+        return transactions;
+    }
+
+    /**
+     * Get the completed transactions.
+     * @return A read-only list of transactions
+     */
+    public List<Transaction> getTransactions() {
+        return transactions.asList().subList(0, transactionCount);
+    }
+
+    StoreSnapshot withPackages(PersistentVector<Package> packages) {
+        return new StoreSnapshot(version + 1, packages, users, transactions, transactionCount);
+    }
+
+    StoreSnapshot withUsers(PersistentVector<User> users) {
+        return new StoreSnapshot(version + 1, packages, users, transactions, transactionCount);
+    }
+
+    StoreSnapshot withTransactions(TransactionTable transactions, int transactionCount) {
+        return new StoreSnapshot(version + 1, packages, users, transactions, transactionCount);
+    }
+
+    StoreSnapshot withDeliveries(PersistentVector<Package> packages, TransactionTable transactions,
+                                 int transactionCount) {
+        return new StoreSnapshot(version + 1, packages, users, transactions, transactionCount);
+    }
+}
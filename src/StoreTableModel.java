@@ -0,0 +1,119 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * StoreTableModel is the base of the table models that show a ShippingStore
+ * table in a JTable. The model reads straight from a store snapshot instead
+ * of copying the rows, and a JTable only asks for the cells it paints, so
+ * opening a window costs the same for ten rows as for a million.
+ *
+ * The model keeps showing one snapshot until refresh() is called; refresh()
+ * switches to the latest snapshot and notifies the table if the rows it
+ * shows have changed. Like every Swing model it must only be used on the
+ * event dispatch thread once it is shown.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public abstract class StoreTableModel extends AbstractTableModel {
+
+    public static final int REFRESH_INTERVAL_MILLIS = 1000;
+
+    private final ShippingStore store;
+    private final String[] columns;
+    private StoreSnapshot snapshot;
+
+    /**
+     * Constructor. Waits for the store to finish loading, so it should not
+     * be called on the event dispatch thread.
+     * @param store The store to show
+     * @param columns The column headers
+     */
+    protected StoreTableModel(ShippingStore store, String... columns) {
+        this.store = store;
+        this.columns = columns;
+        this.snapshot = store.snapshot();
+    }
+
+    /**
+     * Get the snapshot currently shown.
+     * @return snapshot
+     */
+    public StoreSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int getRowCount() {
+        return getRowCount(snapshot);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return getValueAt(snapshot, row, column);
+    }
+
+    /**
+     * Switch to the latest snapshot of the store, notifying the table if
+     * the rows shown by this model have changed.
+     */
+    public void refresh() {
+        StoreSnapshot latest = store.snapshot();
+        if (latest.getVersion() == snapshot.getVersion()) {
+            return;
+        }
+        StoreSnapshot previous = snapshot;
+        snapshot = latest;
+        fireChanges(previous, latest);
+    }
+
+    /**
+     * Start a timer that calls refresh() periodically on the event dispatch
+     * thread. The caller stops the timer when the table is closed.
+     * @return The started timer
+     */
+    public Timer startRefreshing() {
+        Timer timer = new Timer(REFRESH_INTERVAL_MILLIS, e -> refresh());
+        timer.start();
+        return timer;
+    }
+
+    /**
+     * Get the number of rows of the table in a snapshot.
+     * @param snapshot The snapshot
+     * @return Number of rows
+     */
+    protected abstract int getRowCount(StoreSnapshot snapshot);
+
+    /**
+     * Get a cell of the table in a snapshot.
+     * @param snapshot The snapshot
+     * @param row Row index
+     * @param column Column index
+     * @return Cell value
+     */
+    protected abstract Object getValueAt(StoreSnapshot snapshot, int row, int column);
+
+    /**
+     * Notify the table of the differences between two snapshots, if the
+     * rows shown by this model differ between them.
+     * @param previous The snapshot shown before
+     * @param latest The snapshot shown now
+     */
+    protected abstract void fireChanges(StoreSnapshot previous, StoreSnapshot latest);
+}
@@ -0,0 +1,87 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * TextColumns writes right-aligned report columns to an Appendable. It
+ * produces the same text as the "%Ns", "%Nd" and "%Nf" conversions of
+ * String.format, but without parsing a format string for every row, so
+ * reports can be streamed row by row.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public final class TextColumns {
+
+    public static final String NEWLINE = System.lineSeparator();
+
+    private static final int FRACTION_DIGITS = 6;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private TextColumns() {
+    }
+
+    /**
+     * Write a value right-aligned in a column, like "%Ns".
+     * @param out Where to write
+     * @param value The value; null is written as "null"
+     * @param width Minimum column width
+     * @return out
+     * @throws IOException if out cannot be written to
+     */
+    public static Appendable pad(Appendable out, Object value, int width) throws IOException {
+        CharSequence text = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+        for (int i = text.length(); i < width; i++) {
+            out.append(' ');
+        }
+        return out.append(text);
+    }
+
+    /**
+     * Write a number right-aligned in a column, like "%Nd".
+     * @param out Where to write
+     * @param value The number
+     * @param width Minimum column width
+     * @return out
+     * @throws IOException if out cannot be written to
+     */
+    public static Appendable pad(Appendable out, long value, int width) throws IOException {
+        return pad(out, Long.toString(value), width);
+    }
+
+    /**
+     * Write a number with six decimals right-aligned in a column, like "%Nf".
+     * @param out Where to write
+     * @param value The number
+     * @param width Minimum column width
+     * @return out
+     * @throws IOException if out cannot be written to
+     */
+    public static Appendable padFixed(Appendable out, float value, int width) throws IOException {
+        return pad(out, fixed(value), width);
+    }
+
+    /**
+     * Auxiliary private method that renders a float with six decimals. Like
+     * Formatter, it rounds the shortest decimal form of the value half up.
+     */
+    private static String fixed(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        String text = new BigDecimal(Double.toString(value)).setScale(FRACTION_DIGITS, RoundingMode.HALF_UP)
+                .toPlainString();
+        // BigDecimal has no negative zero; Formatter keeps the sign, e.g. "-0.000000".
+        if (Math.copySign(1.0f, value) < 0 && text.charAt(0) != '-') {
+            return "-" + text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TextIndex is an inverted index from words to the values whose text
+ * contains them. Text is split into words at every character that is not a
+ * letter or digit, and words are case-folded, so "Fragile", "FRAGILE" and
+ * "fragile," are the same word. A query reads only the posting sets of its
+ * own words.
+ *
+ * A value must be removed with the same text it was added with. Values are
+ * compared with equals(), which for the entity classes means identity. The
+ * index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class TextIndex<V> {
+
+    private final Map<String, Set<V>> postings = new HashMap<String, Set<V>>();
+
+    /**
+     * Record a value under every word of a text.
+     * @param value The value
+     * @param text The text; null is treated as empty
+     */
+    public void add(V value, String text) {
+        for (String word : tokenize(text)) {
+            Set<V> values = postings.get(word);
+            if (values == null) {
+                values = new LinkedHashSet<V>();
+                postings.put(word, values);
+            }
+            values.add(value);
+        }
+    }
+
+    /**
+     * Remove a value from every word of a text.
+     * @param value The value
+     * @param text The text the value was added with
+     */
+    public void remove(V value, String text) {
+        for (String word : tokenize(text)) {
+            Set<V> values = postings.get(word);
+            if (values != null && values.remove(value) && values.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Find the values whose text contains every word of a query. The
+     * smallest posting set is walked and checked against the others, so the
+     * cost depends on the rarest word.
+     *
+     * @param query The query, e.g. "fragile lithium"
+     * @return A new list of the values; empty if the query has no words
+     */
+    public List<V> searchAll(String query) {
+        Set<String> words = tokenize(query);
+        List<Set<V>> sets = new ArrayList<Set<V>>(words.size());
+        for (String word : words) {
+            Set<V> values = postings.get(word);
+            if (values == null) {
+                return new ArrayList<V>(0);
+            }
+            sets.add(values);
+        }
+        if (sets.isEmpty()) {
+            return new ArrayList<V>(0);
+        }
+        Set<V> smallest = sets.get(0);
+        for (Set<V> values : sets) {
+            if (values.size() < smallest.size()) {
+                smallest = values;
+            }
+        }
+        List<V> found = new ArrayList<V>();
+        for (V value : smallest) {
+            boolean inAll = true;
+            for (Set<V> values : sets) {
+                if (values != smallest && !values.contains(value)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                found.add(value);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find the values whose text contains at least one word of a query.
+     *
+     * @param query The query, e.g. "steel aluminum"
+     * @return A new list of the values, each listed once
+     */
+    public List<V> searchAny(String query) {
+        Set<V> found = new LinkedHashSet<V>();
+        for (String word : tokenize(query)) {
+            Set<V> values = postings.get(word);
+            if (values != null) {
+                found.addAll(values);
+            }
+        }
+        return new ArrayList<V>(found);
+    }
+
+    /**
+     * Count the values whose text contains a word.
+     * @param word The word, in any case
+     * @return Number of values
+     */
+    public int count(String word) {
+        Set<V> values = postings.get(word.toLowerCase(Locale.ROOT));
+        return values == null ? 0 : values.size();
+    }
+
+    /**
+     * Split a text into case-folded words.
+     * @param text The text; null is treated as empty
+     * @return The distinct words, in the order they first appear
+     */
+    public static Set<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptySet();
+        }
+        Set<String> words = new LinkedHashSet<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * TimeIndex keeps table rows ordered by a timestamp, e.g. the delivery date
+ * of each transaction. Times and rows are stored in two parallel primitive
+ * arrays sorted by time, and rows with equal times keep the order they were
+ * added in. A range query is two binary searches plus a copy of the matching
+ * slice, so it never touches rows outside the range.
+ *
+ * Rows are usually added in roughly time order, which makes adding one a
+ * plain append; an older time is inserted in place.
+ *
+ * The index is not thread-safe; the owner guards it with its table lock.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class TimeIndex {
+
+    /**
+     * Calendar periods used to group rows into buckets. Bucket boundaries
+     * follow the default time zone and locale, so a DAY starts at local
+     * midnight and a WEEK on the locale's first day of the week.
+     */
+    public enum Period {
+        DAY {
+            @Override
+            void truncate(Calendar c) {
+                truncateToDay(c);
+            }
+
+            @Override
+            void advance(Calendar c) {
+                c.add(Calendar.DAY_OF_MONTH, 1);
+            }
+        },
+        WEEK {
+            @Override
+            void truncate(Calendar c) {
+                truncateToDay(c);
+                int back = (c.get(Calendar.DAY_OF_WEEK) - c.getFirstDayOfWeek() + 7) % 7;
+                c.add(Calendar.DAY_OF_MONTH, -back);
+            }
+
+            @Override
+            void advance(Calendar c) {
+                c.add(Calendar.WEEK_OF_YEAR, 1);
+            }
+        },
+        MONTH {
+            @Override
+            void truncate(Calendar c) {
+                truncateToDay(c);
+                c.set(Calendar.DAY_OF_MONTH, 1);
+            }
+
+            @Override
+            void advance(Calendar c) {
+                c.add(Calendar.MONTH, 1);
+            }
+        };
+
+        abstract void truncate(Calendar c);
+
+        abstract void advance(Calendar c);
+
+        /**
+         * Get the start of the period holding a time.
+         * @param time Epoch milliseconds
+         * @return Start of the period, in epoch milliseconds
+         */
+        public long floor(long time) {
+            Calendar c = Calendar.getInstance();
+            c.setTimeInMillis(time);
+            truncate(c);
+            return c.getTimeInMillis();
+        }
+
+        /**
+         * Get the start of the period after the one starting at a time.
+         * @param start Start of a period, in epoch milliseconds
+         * @return Start of the next period, in epoch milliseconds
+         */
+        public long next(long start) {
+            Calendar c = Calendar.getInstance();
+            c.setTimeInMillis(start);
+            advance(c);
+            return c.getTimeInMillis();
+        }
+
+        private static void truncateToDay(Calendar c) {
+            c.set(Calendar.HOUR_OF_DAY, 0);
+            c.set(Calendar.MINUTE, 0);
+            c.set(Calendar.SECOND, 0);
+            c.set(Calendar.MILLISECOND, 0);
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] times = new long[DEFAULT_CAPACITY];
+    private int[] rows = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * Record a row under a time.
+     *
+     * @param time Epoch milliseconds
+     * @param row The row, greater than every row added before
+     */
+    public void add(long time, int row) {
+        ensureCapacity(size + 1);
+        // Equal times go after the rows already present.
+        int position = size == 0 || times[size - 1] <= time ? size : upperBound(time);
+        System.arraycopy(times, position, times, position + 1, size - position);
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        times[position] = time;
+        rows[position] = row;
+        size++;
+    }
+
+    /**
+     * Record many rows at once, e.g. a whole table at load time. This sorts
+     * the new rows and merges them in, instead of inserting them one by one.
+     *
+     * @param newTimes Epoch milliseconds of the new rows
+     * @param newRows The new rows, ascending and greater than every row added before
+     * @param count Number of entries of newTimes and newRows to add
+     */
+    public void addAll(long[] newTimes, int[] newRows, int count) {
+        long[] sortedTimes = Arrays.copyOf(newTimes, count);
+        int[] sortedRows = Arrays.copyOf(newRows, count);
+        sort(sortedTimes, sortedRows, count);
+
+        ensureCapacity(size + count);
+        // Merge from the back so the existing entries can stay in place.
+        int i = size - 1;
+        int j = count - 1;
+        for (int k = size + count - 1; j >= 0; k--) {
+            if (i >= 0 && times[i] > sortedTimes[j]) {
+                times[k] = times[i];
+                rows[k] = rows[i--];
+            } else {
+                times[k] = sortedTimes[j];
+                rows[k] = sortedRows[j--];
+            }
+        }
+        size += count;
+    }
+
+    /**
+     * Get the number of rows in the index.
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the rows whose time lies in a range, in time order.
+     *
+     * @param from Start of the range, inclusive, in epoch milliseconds
+     * @param to End of the range, exclusive, in epoch milliseconds
+     * @return A new array of the rows
+     */
+    public int[] rowsBetween(long from, long to) {
+        int start = lowerBound(from);
+        int end = Math.max(start, lowerBound(to));
+        return Arrays.copyOfRange(rows, start, end);
+    }
+
+    /**
+     * Count the rows whose time lies in a range.
+     *
+     * @param from Start of the range, inclusive, in epoch milliseconds
+     * @param to End of the range, exclusive, in epoch milliseconds
+     * @return Number of rows
+     */
+    public int countBetween(long from, long to) {
+        return Math.max(0, lowerBound(to) - lowerBound(from));
+    }
+
+    /**
+     * Get the earliest time in the index.
+     * @return Epoch milliseconds, or Long.MAX_VALUE if the index is empty
+     */
+    public long getFirstTime() {
+        return size == 0 ? Long.MAX_VALUE : times[0];
+    }
+
+    /**
+     * Get the latest time in the index.
+     * @return Epoch milliseconds, or Long.MIN_VALUE if the index is empty
+     */
+    public long getLastTime() {
+        return size == 0 ? Long.MIN_VALUE : times[size - 1];
+    }
+
+    /**
+     * Auxiliary private method that finds the first position whose time is
+     * at least the given one.
+     */
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Auxiliary private method that finds the first position whose time is
+     * later than the given one.
+     */
+    private int upperBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int grown = Math.max(capacity, times.length + (times.length >> 1));
+            times = Arrays.copyOf(times, grown);
+            rows = Arrays.copyOf(rows, grown);
+        }
+    }
+
+    /**
+     * Auxiliary private method that sorts two parallel arrays by time with a
+     * stable bottom-up merge sort, so equal times keep their row order.
+     */
+    private static void sort(long[] times, int[] rows, int count) {
+        long[] timeBuffer = new long[count];
+        int[] rowBuffer = new int[count];
+        for (int width = 1; width < count; width <<= 1) {
+            for (int low = 0; low < count - width; low += width << 1) {
+                int mid = low + width;
+                int high = Math.min(low + (width << 1), count);
+                if (times[mid - 1] <= times[mid]) {
+                    continue; // Already in order.
+                }
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (j >= high || (i < mid && times[i] <= times[j])) {
+                        timeBuffer[k] = times[i];
+                        rowBuffer[k] = rows[i++];
+                    } else {
+                        timeBuffer[k] = times[j];
+                        rowBuffer[k] = rows[j++];
+                    }
+                }
+                System.arraycopy(timeBuffer, low, times, low, high - low);
+                System.arraycopy(rowBuffer, low, rows, low, high - low);
+            }
+        }
+    }
+}
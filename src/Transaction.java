@@ -12,6 +12,9 @@ import java.util.Date;
  * @author Jamal Rasool and Zach Sotak
  */
 public class Transaction implements Serializable {
+
+    private static final long serialVersionUID = 4521921648332332492L;
+
     private int customerId;
     private int employeeId;
     private String ptn;
@@ -0,0 +1,354 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * TransactionAnalytics answers ad-hoc questions about the transactions of a
+ * snapshot by scanning their columns in parallel. The rows are split into
+ * ranges that fork/join workers scan on their own, each into a private
+ * accumulator of primitive fields, and the accumulators are merged pairwise
+ * as the tasks join. Nothing is shared while scanning and no Transaction
+ * objects or boxed numbers are created per row, so the scans scale with the
+ * number of cores.
+ *
+ * Snapshot rows never change, so an instance can be used from any thread
+ * and never blocks writers. Queries that take a time range filter on the
+ * delivery date and skip rows without one.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class TransactionAnalytics {
+
+    // Rows scanned by one task without splitting further. Large enough that
+    // forking costs little next to the scan.
+    private static final int CHUNK_ROWS = 1 << 14;
+
+    private final TransactionTable table;
+    private final int rowCount;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor. Scans on the common fork/join pool.
+     * @param snapshot The snapshot to analyze
+     */
+    public TransactionAnalytics(StoreSnapshot snapshot) {
+        this(snapshot, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * @param snapshot The snapshot to analyze
+     * @param pool The pool that runs the scans
+     */
+    public TransactionAnalytics(StoreSnapshot snapshot, ForkJoinPool pool) {
+        this.table = snapshot.getTransactionTable();
+        this.rowCount = snapshot.getTransactionCount();
+        this.pool = pool;
+    }
+
+    /**
+     * Get the number of transactions analyzed.
+     * @return rowCount
+     */
+    public int getTransactionCount() {
+        return rowCount;
+    }
+
+    /**
+     * Summarize the prices of the transactions delivered in a time range,
+     * e.g. for the average price of last month.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return The count, total, lowest and highest price
+     */
+    public Revenue priceSummary(Date from, Date to) {
+        final long start = from.getTime();
+        final long end = to.getTime();
+        PriceSum sum = scan(new Aggregation<PriceSum>() {
+            @Override
+            public PriceSum create() {
+                return new PriceSum();
+            }
+
+            @Override
+            public void scan(PriceSum acc, TransactionTable table, int fromRow, int toRow) {
+                for (int row = fromRow; row < toRow; row++) {
+                    long delivered = table.getDeliveryTime(row);
+                    if (delivered != TransactionTable.NO_DATE && delivered >= start && delivered < end) {
+                        acc.add(table.getPrice(row));
+                    }
+                }
+            }
+
+            @Override
+            public PriceSum merge(PriceSum left, PriceSum right) {
+                left.merge(right);
+                return left;
+            }
+        });
+        return sum.count == 0 ? Revenue.NONE : new Revenue(sum.count, sum.total, sum.min, sum.max);
+    }
+
+    /**
+     * Get the distribution of delivery times, the time from shipping date to
+     * delivery date, of the transactions delivered in a time range. Rows
+     * without a shipping date are skipped.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @param bucketMillis Width of each bucket, e.g. one day
+     * @param bucketCount Number of buckets
+     * @return A new array of counts: bucket i counts delivery times in
+     * [i * bucketMillis, (i + 1) * bucketMillis); the last bucket also counts
+     * everything longer, and the first everything negative
+     */
+    public long[] deliveryTimeHistogram(Date from, Date to, final long bucketMillis, final int bucketCount) {
+        if (bucketMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        final long start = from.getTime();
+        final long end = to.getTime();
+        return scan(new Aggregation<long[]>() {
+            @Override
+            public long[] create() {
+                return new long[bucketCount];
+            }
+
+            @Override
+            public void scan(long[] acc, TransactionTable table, int fromRow, int toRow) {
+                for (int row = fromRow; row < toRow; row++) {
+                    long delivered = table.getDeliveryTime(row);
+                    long shipped = table.getShippingTime(row);
+                    if (delivered != TransactionTable.NO_DATE && shipped != TransactionTable.NO_DATE
+                            && delivered >= start && delivered < end) {
+                        long bucket = (delivered - shipped) / bucketMillis;
+                        acc[(int) Math.max(0, Math.min(bucket, bucketCount - 1))]++;
+                    }
+                }
+            }
+
+            @Override
+            public long[] merge(long[] left, long[] right) {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            }
+        });
+    }
+
+    /**
+     * Find the employees that delivered the most packages in a time range.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @param limit Maximum number of employees to return
+     * @return A new array of employee IDs, most deliveries first; ties are
+     * ordered by employee ID
+     */
+    public int[] busiestEmployees(Date from, Date to, int limit) {
+        final long start = from.getTime();
+        final long end = to.getTime();
+        IntCounter counts = scan(new Aggregation<IntCounter>() {
+            @Override
+            public IntCounter create() {
+                return new IntCounter();
+            }
+
+            @Override
+            public void scan(IntCounter acc, TransactionTable table, int fromRow, int toRow) {
+                for (int row = fromRow; row < toRow; row++) {
+                    long delivered = table.getDeliveryTime(row);
+                    if (delivered != TransactionTable.NO_DATE && delivered >= start && delivered < end) {
+                        acc.increment(table.getEmployeeId(row));
+                    }
+                }
+            }
+
+            @Override
+            public IntCounter merge(IntCounter left, IntCounter right) {
+                left.addAll(right);
+                return left;
+            }
+        });
+        return counts.top(limit);
+    }
+
+    /**
+     * Auxiliary private method that runs an aggregation over every row of
+     * the snapshot.
+     */
+    private <A> A scan(Aggregation<A> aggregation) {
+        return pool.invoke(new ScanTask<A>(aggregation, table, 0, rowCount));
+    }
+
+    /**
+     * An aggregation scans a range of rows into an accumulator; the
+     * accumulators of neighbouring ranges are then merged.
+     */
+    private interface Aggregation<A> {
+        A create();
+
+        void scan(A acc, TransactionTable table, int fromRow, int toRow);
+
+        A merge(A left, A right);
+    }
+
+    /**
+     * Scans a range of rows, splitting it in half until it is small enough.
+     */
+    private static final class ScanTask<A> extends RecursiveTask<A> {
+        private final Aggregation<A> aggregation;
+        private final TransactionTable table;
+        private final int fromRow;
+        private final int toRow;
+
+        ScanTask(Aggregation<A> aggregation, TransactionTable table, int fromRow, int toRow) {
+            this.aggregation = aggregation;
+            this.table = table;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected A compute() {
+            if (toRow - fromRow <= CHUNK_ROWS) {
+                A acc = aggregation.create();
+                aggregation.scan(acc, table, fromRow, toRow);
+                return acc;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            ScanTask<A> left = new ScanTask<A>(aggregation, table, fromRow, middle);
+            left.fork();
+            A right = new ScanTask<A>(aggregation, table, middle, toRow).compute();
+            return aggregation.merge(left.join(), right);
+        }
+    }
+
+    /**
+     * Running count, total, min and max of prices.
+     */
+    private static final class PriceSum {
+        long count;
+        double total;
+        float min = Float.NaN;
+        float max = Float.NaN;
+
+        void add(float price) {
+            if (count == 0 || price < min) {
+                min = price;
+            }
+            if (count == 0 || price > max) {
+                max = price;
+            }
+            count++;
+            total += price;
+        }
+
+        void merge(PriceSum other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0 || other.min < min) {
+                min = other.min;
+            }
+            if (count == 0 || other.max > max) {
+                max = other.max;
+            }
+            count += other.count;
+            total += other.total;
+        }
+    }
+
+    /**
+     * Counts per int key in an open-addressing hash table, like IntUserMap,
+     * so neither keys nor counts are boxed.
+     */
+    private static final class IntCounter {
+        private int[] keys = new int[16];
+        private long[] counts = new long[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        void increment(int key) {
+            add(key, 1);
+        }
+
+        void add(int key, long count) {
+            int slot = slot(key);
+            if (!used[slot]) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                    slot = slot(key);
+                }
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot] += count;
+        }
+
+        void addAll(IntCounter other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.used[i]) {
+                    add(other.keys[i], other.counts[i]);
+                }
+            }
+        }
+
+        int[] top(int limit) {
+            final int[] ids = new int[size];
+            final long[] totals = new long[size];
+            Integer[] order = new Integer[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    ids[n] = keys[i];
+                    totals[n] = counts[i];
+                    order[n] = n++;
+                }
+            }
+            // Only the distinct keys are sorted, not the rows.
+            Arrays.sort(order, (a, b) -> totals[a] != totals[b]
+                    ? Long.compare(totals[b], totals[a]) : Integer.compare(ids[a], ids[b]));
+            int[] top = new int[Math.min(Math.max(limit, 0), n)];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = ids[order[i]];
+            }
+            return top;
+        }
+
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            long[] oldCounts = counts;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length << 1];
+            counts = new long[oldKeys.length << 1];
+            used = new boolean[oldKeys.length << 1];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    add(oldKeys[i], oldCounts[i]);
+                }
+            }
+        }
+    }
+}
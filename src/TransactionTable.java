@@ -0,0 +1,166 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Date;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Class TransactionTable is an abstract, append-only table of completed
+ * shipping transactions. Rows are addressed by their position, and each
+ * column can be read on its own so scans do not have to build Transaction
+ * objects. Subclasses decide where the rows are kept.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public abstract class TransactionTable implements Closeable {
+
+    /**
+     * Value returned by the date columns when the transaction has no date.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Get the number of rows in the table.
+     * @return size
+     */
+    public abstract int size();
+
+    /**
+     * Get the customer ID of a row.
+     * @param row Row position
+     * @return customerId
+     */
+    public abstract int getCustomerId(int row);
+
+    /**
+     * Get the employee ID of a row.
+     * @param row Row position
+     * @return employeeId
+     */
+    public abstract int getEmployeeId(int row);
+
+    /**
+     * Get the package PTN of a row.
+     * @param row Row position
+     * @return ptn
+     */
+    public abstract String getPtn(int row);
+
+    /**
+     * Get the shipping date of a row as epoch milliseconds.
+     * @param row Row position
+     * @return shipping time, or NO_DATE
+     */
+    public abstract long getShippingTime(int row);
+
+    /**
+     * Get the delivery date of a row as epoch milliseconds.
+     * @param row Row position
+     * @return delivery time, or NO_DATE
+     */
+    public abstract long getDeliveryTime(int row);
+
+    /**
+     * Get the price of a row.
+     * @param row Row position
+     * @return price
+     */
+    public abstract float getPrice(int row);
+
+    /**
+     * Append a transaction at the end of the table.
+     * @param t The transaction
+     * @param lsn LSN of the journal record for the transaction, or 0
+     * @throws IOException if the row cannot be stored
+     */
+    public abstract void append(Transaction t, long lsn) throws IOException;
+
+    /**
+     * Get the LSN passed with the last appended row. Journal records at or
+     * below it are already in the table.
+     * @return lastLsn
+     */
+    public abstract long getLastLsn();
+
+    /**
+     * Returns true if the rows are kept in their own files, so they do not
+     * need to be written into the database image.
+     * @return true if the table is persistent
+     */
+    public abstract boolean isPersistent();
+
+    /**
+     * Make room for a number of rows after the current ones, so appending
+     * them cannot fail for lack of space. Called before a change is
+     * journaled, so a full disk rejects the change instead of leaving it
+     * half applied. Does nothing for tables that never run out of space.
+     * @param rows Number of rows about to be appended
+     * @throws IOException if the room cannot be made
+     */
+    public void reserve(int rows) throws IOException {
+    }
+
+    /**
+     * Force appended rows to disk. Does nothing for tables kept in memory.
+     * @throws IOException if the rows cannot be synced
+     */
+    public void force() throws IOException {
+    }
+
+    /**
+     * Release the table's resources.
+     * @throws IOException if the table cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Get a row as a Transaction object. Changes made to the returned object
+     * are not stored.
+     * @param row Row position
+     * @return The transaction
+     */
+    public Transaction get(int row) {
+        long shipped = getShippingTime(row);
+        long delivered = getDeliveryTime(row);
+        return new Transaction(getCustomerId(row), getEmployeeId(row), getPtn(row),
+                shipped == NO_DATE ? null : new Date(shipped),
+                delivered == NO_DATE ? null : new Date(delivered), getPrice(row));
+    }
+
+    /**
+     * Get a read-only list view of the table. Rows appended later show up in
+     * the view.
+     * @return The list view
+     */
+    public List<Transaction> asList() {
+        return new ListView();
+    }
+
+    /**
+     * Read-only list view of the table.
+     */
+    private class ListView extends AbstractList<Transaction> implements RandomAccess {
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return TransactionTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return TransactionTable.this.size();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Date;
+
+/**
+ * TransactionTableModel shows the completed shipping transactions of a
+ * ShippingStore, one transaction per row. Cells are read from the columns of
+ * the transaction table, so no Transaction object is built for a row.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class TransactionTableModel extends StoreTableModel {
+
+    /**
+     * Constructor.
+     * @param store The store to show
+     */
+    public TransactionTableModel(ShippingStore store) {
+        super(store, "CUSTOMER ID", "EMPLOYEE ID", "PTN", "SHIPPING DATE", "DELIVERY DATE", "PRICE");
+    }
+
+    @Override
+    protected int getRowCount(StoreSnapshot snapshot) {
+        return snapshot.getTransactionCount();
+    }
+
+    @Override
+    protected Object getValueAt(StoreSnapshot snapshot, int row, int column) {
+        TransactionTable transactions = snapshot.getTransactionTable();
+        switch (column) {
+            case 0:
+                return transactions.getCustomerId(row);
+            case 1:
+                return transactions.getEmployeeId(row);
+            case 2:
+                return transactions.getPtn(row);
+            case 3:
+                return toDate(transactions.getShippingTime(row));
+            case 4:
+                return toDate(transactions.getDeliveryTime(row));
+            default:
+                return transactions.getPrice(row);
+        }
+    }
+
+    /**
+     * Transactions are only ever appended, so a change is reported as the
+     * new rows being inserted.
+     */
+    @Override
+    protected void fireChanges(StoreSnapshot previous, StoreSnapshot latest) {
+        int before = previous.getTransactionCount();
+        int after = latest.getTransactionCount();
+        if (previous.getTransactionTable() != latest.getTransactionTable() || after < before) {
+            fireTableDataChanged();
+        } else if (after > before) {
+            fireTableRowsInserted(before, after - 1);
+        }
+    }
+
+    private static Date toDate(long time) {
+        return time == TransactionTable.NO_DATE ? null : new Date(time);
+    }
+}
@@ -4,7 +4,9 @@
  * Copyright: Junye Wen (j_w236@txstate.edu)
  */
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 
 /**
  * User is a superclass for all specific types of actors in the system
@@ -12,6 +14,8 @@ import java.io.Serializable;
  */
 public abstract class User implements Serializable {
 
+    private static final long serialVersionUID = -8068896292205445595L;
+
     /**
      *
      */
@@ -96,10 +100,57 @@ public abstract class User implements Serializable {
         this.firstName = firstName;
     }
 
+    /**
+     * Get the attributes of the user, in a formatted text fashion.
+     * @return the text describing the user in a formatted manner.
+     */
+    public String getFormattedText() {
+        StringBuilder text = new StringBuilder(128);
+        try {
+            appendFormattedText(text);
+        } catch (IOException ex) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(ex);
+        }
+        return text.toString();
+    }
+
     /**
      * Abstract print method, to be implemented by subclasses of class User.
-     * @return 
+     * Writes the same text as getFormattedText() straight to out.
+     * @param out Where to write the row
+     * @throws IOException if out cannot be written to
+     */
+    public abstract void appendFormattedText(Appendable out) throws IOException;
+
+    /**
+     * Write the columns shared by every user type, followed by the
+     * separator of the OTHER DETAILS column.
+     * @param out Where to write
+     * @param type Name of the user type
+     * @throws IOException if out cannot be written to
      */
-    public abstract String getFormattedText();
+    protected void appendColumns(Appendable out, String type) throws IOException {
+        out.append("| ");
+        TextColumns.pad(out, type, 10).append(" | ");
+        TextColumns.pad(out, id, 9).append(" | ");
+        TextColumns.pad(out, firstName, 12).append(" | ");
+        TextColumns.pad(out, lastName, 12).append(" | ");
+    }
+
+    /**
+     * Abstract method, to be implemented by subclasses of class User.
+     * @return the attributes specific to the user type, e.g. "phoneNumber=..., address=...".
+     */
+    public abstract String getDetails();
+
+    /**
+     * Get the text the user can be looked up by. Subclasses with fields of
+     * their own that people search for add them.
+     * @return the first and last name
+     */
+    public String getSearchableText() {
+        return firstName + " " + lastName;
+    }
 
 }
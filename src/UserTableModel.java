@@ -0,0 +1,50 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+/**
+ * UserTableModel shows the users of a ShippingStore, one user per row.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class UserTableModel extends StoreTableModel {
+
+    /**
+     * Constructor.
+     * @param store The store to show
+     */
+    public UserTableModel(ShippingStore store) {
+        super(store, "USER TYPE", "USER ID", "FIRST NAME", "LAST NAME", "OTHER DETAILS");
+    }
+
+    @Override
+    protected int getRowCount(StoreSnapshot snapshot) {
+        return snapshot.getUsers().size();
+    }
+
+    @Override
+    protected Object getValueAt(StoreSnapshot snapshot, int row, int column) {
+        User user = snapshot.getUsers().get(row);
+        switch (column) {
+            case 0:
+                return user.getClass().getName();
+            case 1:
+                return user.getId();
+            case 2:
+                return user.getFirstName();
+            case 3:
+                return user.getLastName();
+            default:
+                return user.getDetails();
+        }
+    }
+
+    @Override
+    protected void fireChanges(StoreSnapshot previous, StoreSnapshot latest) {
+        if (previous.getUsers() != latest.getUsers()) {
+            fireTableDataChanged();
+        }
+    }
+}
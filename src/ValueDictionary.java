@@ -0,0 +1,93 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ValueDictionary gives each distinct string of a low-cardinality field,
+ * such as the mailing class of a package, a small int code, e.g. so a
+ * database image can write each value once and refer to it by code. Two
+ * values are equal exactly when their codes are.
+ *
+ * Codes are handed out in order starting at 0 and are never reused, so a
+ * dictionary only grows; it is meant to live as long as the image or other
+ * object it encodes, not for the life of the program. null is encoded as NULL_CODE. encode() is
+ * synchronized; decode() takes no lock, because a code is only known to a
+ * thread after the value it stands for has been stored.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class ValueDictionary {
+
+    /**
+     * Code of null.
+     */
+    public static final int NULL_CODE = -1;
+
+    /**
+     * Returned by lookup() for a value that has no code.
+     */
+    public static final int NO_CODE = -2;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+    private volatile String[] values = new String[DEFAULT_CAPACITY];
+
+    /**
+     * Get the code of a value, adding the value if it is new.
+     * @param value The value, or null
+     * @return Its code
+     */
+    public synchronized int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == values.length) {
+            values = Arrays.copyOf(values, next << 1);
+        }
+        values[next] = value;
+        codes.put(value, next);
+        return next;
+    }
+
+    /**
+     * Get the code of a value without adding it.
+     * @param value The value, or null
+     * @return Its code, or NO_CODE if no object has the value
+     */
+    public synchronized int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * Get the value of a code.
+     * @param code A code returned by encode()
+     * @return The shared instance of the value, or null for NULL_CODE
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * Get the number of distinct values.
+     * @return size
+     */
+    public synchronized int size() {
+        return codes.size();
+    }
+}
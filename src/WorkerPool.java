@@ -0,0 +1,154 @@
+/*
+ * Shipping Store Management Software v0.1
+ * Developed for CS3354: Object Oriented Design and Programming.
+ * Copyright: Junye Wen (j_w236@txstate.edu)
+ */
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WorkerPool runs background work for the GUI. On a Java runtime with
+ * virtual threads every task gets its own virtual thread; otherwise the
+ * tasks share a bounded pool of platform threads. In both cases at most
+ * maxPending tasks may be running or waiting at once; further tasks are
+ * refused instead of piling up, so a burst of clicks cannot create an
+ * unbounded number of threads or a long backlog.
+ *
+ * Threads are named after the pool, e.g. "gui-action-3", so they can be
+ * told apart in logs and thread dumps.
+ *
+ * @author Jamal Rasool and Zach Sotak
+ */
+public class WorkerPool {
+
+    public static final int DEFAULT_MAX_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_MAX_PENDING = 64;
+
+    private final String name;
+    private final ExecutorService executor;
+    private final Semaphore pending;
+    private final boolean virtual;
+
+    /**
+     * Constructor. Creates a pool with the default limits.
+     * @param name Prefix of the worker thread names
+     */
+    public WorkerPool(String name) {
+        this(name, DEFAULT_MAX_THREADS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Constructor.
+     * @param name Prefix of the worker thread names
+     * @param maxThreads Number of platform threads, when virtual threads are not available
+     * @param maxPending Number of tasks that may be running or waiting at once
+     */
+    public WorkerPool(String name, int maxThreads, int maxPending) {
+        this.name = name;
+        this.pending = new Semaphore(maxPending);
+
+        ExecutorService perTask = newVirtualThreadExecutor(name);
+        if (perTask != null) {
+            executor = perTask;
+            virtual = true;
+        } else {
+            final AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), factory);
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+            virtual = false;
+        }
+    }
+
+    /**
+     * Run a task in the background.
+     * @param task The task
+     * @return true if the task was accepted, false if too many tasks are
+     * pending or the pool is shut down
+     */
+    public boolean submit(Runnable task) {
+        if (!pending.tryAcquire()) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            pending.release();
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if tasks run on virtual threads.
+     * @return virtual
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Stop accepting tasks and wait for the running ones to finish. Tasks
+     * still running when the timeout expires are interrupted.
+     *
+     * @param timeoutMillis How long to wait for running tasks
+     * @return true if every task finished in time
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        System.err.println("WorkerPool " + name + ": interrupted tasks still running at shutdown.");
+        return false;
+    }
+
+    /**
+     * Auxiliary private method that creates a thread-per-task executor of
+     * named virtual threads. The calls go through reflection so the class
+     * still compiles and runs on Java 8.
+     *
+     * @return The executor, or null if virtual threads are not available.
+     */
+    private static ExecutorService newVirtualThreadExecutor(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor",
+                    ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        } catch (RuntimeException ex) {
+            // e.g. UnsupportedOperationException when preview features are off.
+            return null;
+        }
+    }
+}